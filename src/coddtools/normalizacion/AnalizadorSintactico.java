@@ -0,0 +1,265 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+/**
+ * Convierte cadenas de caracteres en relaciones, conjuntos de dependencias funcionales, dependencias
+ * funcionales y descriptores, recorriendo la cadena una sola vez, sin expresiones regulares ni cadenas
+ * intermedias (salvo los nombres de los atributos y de la relación).
+ * La sintaxis es la descrita en Relacion.fromString, DependenciasFuncionales.fromString,
+ * DependenciaFuncional.fromString y Descriptor.fromString:
+ * - Descriptor: atributos separados por comas. Los espacios se ignoran, y puede haber comas al final.
+ * - Dependencia funcional: X -> Y, donde X e Y son descriptores no vacíos.
+ * - Conjunto de dependencias: dependencias separadas por ; (puede haber ; al final).
+ * - Relación: nombre({A1, A2, ..., An}, {X1 -> Y1; X2 -> Y2; ... ; Xm -> Ym})
+ * Los nombres de atributos pueden contener caracteres alfanuméricos y los símbolos _, @, %, $. El nombre
+ * de la relación puede ser cualquier secuencia de caracteres que no contenga espacios ni '(' (e.g. los
+ * nombres de las relaciones hijas de una descomposición, como R.1.2), luego cualquier relación se
+ * puede volver a obtener de su representación como cadena (Relacion.toString).
+ * Si la cadena no tiene un formato válido, se lanza ErrorSintaxis con la posición del error.
+ * @author victor
+ */
+public class AnalizadorSintactico {
+    /**
+     * @param texto Es la cadena de caracteres a analizar.
+     */
+    public AnalizadorSintactico(final CharSequence texto)
+    {
+        this.texto = texto;
+    }
+    
+    /**
+     * @return Devuelve la relación representada por la cadena.
+     * @throws ErrorSintaxis Si la cadena no representa una relación válida.
+     */
+    public Relacion analizarRelacion() throws ErrorSintaxis
+    {
+        int i = saltarEspacios(0, texto.length());
+        
+        /* nombre */
+        int inicioNombre = i;
+        while((i < texto.length()) && (texto.charAt(i) != ' ') && (texto.charAt(i) != '('))
+            ++i;
+        if(i == inicioNombre)
+            throw new ErrorSintaxis("se esperaba el nombre de la relacion", i);
+        String nombre = texto.subSequence(inicioNombre, i).toString();
+        
+        i = esperar('(', saltarEspacios(i, texto.length()));
+        
+        /* atributos */
+        int inicioAtributos = esperar('{', saltarEspacios(i, texto.length()));
+        int finAtributos = buscar('}', inicioAtributos);
+        Descriptor atributos = analizarDescriptor(inicioAtributos, finAtributos);
+        if(atributos.esVacio())
+            throw new ErrorSintaxis("la relacion debe tener al menos un atributo", inicioAtributos);
+        
+        i = esperar(',', saltarEspacios(finAtributos + 1, texto.length()));
+        
+        /* dependencias funcionales */
+        int inicioDfs = esperar('{', saltarEspacios(i, texto.length()));
+        int finDfs = buscar('}', inicioDfs);
+        DependenciasFuncionales dfs = analizarDependencias(inicioDfs, finDfs);
+        if(!dfs.estanCompuestasPor(atributos))
+            throw new ErrorSintaxis("las dependencias funcionales contienen atributos que no son de la relacion", inicioDfs);
+        
+        i = esperar(')', saltarEspacios(finDfs + 1, texto.length()));
+        esperarFin(i);
+        return new Relacion(nombre, atributos, dfs);
+    }
+    
+    /**
+     * @return Devuelve el conjunto de dependencias funcionales representado por la cadena.
+     * @throws ErrorSintaxis Si la cadena no representa un conjunto de dependencias válido.
+     */
+    public DependenciasFuncionales analizarDependencias() throws ErrorSintaxis
+    {
+        return analizarDependencias(0, texto.length());
+    }
+    
+    /**
+     * @return Devuelve la dependencia funcional representada por la cadena.
+     * @throws ErrorSintaxis Si la cadena no representa una dependencia funcional válida.
+     */
+    public DependenciaFuncional analizarDependencia() throws ErrorSintaxis
+    {
+        return analizarDependencia(0, texto.length());
+    }
+    
+    /**
+     * @return Devuelve el descriptor representado por la cadena.
+     * @throws ErrorSintaxis Si la cadena no representa un descriptor válido.
+     */
+    public Descriptor analizarDescriptor() throws ErrorSintaxis
+    {
+        return analizarDescriptor(0, texto.length());
+    }
+    
+    /* análisis de los caracteres entre las posiciones inicio (incluida) y fin (excluida) */
+    
+    private DependenciasFuncionales analizarDependencias(int inicio, int fin)
+    {
+        DependenciasFuncionales dfs = new DependenciasFuncionales();
+        if(saltarEspacios(inicio, fin) == fin)
+            return dfs;
+        
+        /* las dependencias vacías solo se admiten al final (e.g. "X -> Y;") */
+        int i = inicio;
+        while(i <= fin)
+        {
+            int separador = i;
+            while((separador < fin) && (texto.charAt(separador) != ';'))
+                ++separador;
+            if(separador == i)
+            {
+                int j = i;
+                while((j < fin) && (texto.charAt(j) == ';'))
+                    ++j;
+                if(j == fin)
+                    break;
+                throw new ErrorSintaxis("dependencia funcional vacia", i);
+            }
+            dfs.insertar(analizarDependencia(i, separador));
+            i = separador + 1;
+        }
+        return dfs;
+    }
+    
+    private DependenciaFuncional analizarDependencia(int inicio, int fin)
+    {
+        int flecha = buscarFlecha(inicio, fin);
+        if(flecha < 0)
+            throw new ErrorSintaxis("se esperaba ->", fin);
+        
+        /* el determinado termina en la siguiente flecha, tras la que solo puede haber más flechas */
+        int finDeterminado = buscarFlecha(flecha + 2, fin);
+        if(finDeterminado < 0)
+            finDeterminado = fin;
+        else
+            for(int j = finDeterminado; j < fin; j += 2)
+                if(buscarFlecha(j, fin) != j)
+                    throw new ErrorSintaxis("la dependencia funcional tiene mas de una ->", finDeterminado);
+        
+        Descriptor determinante = analizarDescriptor(inicio, flecha);
+        if(determinante.esVacio())
+            throw new ErrorSintaxis("el determinante no puede ser vacio", inicio);
+        Descriptor determinado = analizarDescriptor(flecha + 2, finDeterminado);
+        if(determinado.esVacio())
+            throw new ErrorSintaxis("el determinado no puede ser vacio", flecha + 2);
+        return new DependenciaFuncional(determinante, determinado);
+    }
+    
+    private Descriptor analizarDescriptor(int inicio, int fin)
+    {
+        Descriptor descriptor = new Descriptor();
+        StringBuilder nombre = new StringBuilder();
+        int vacio = -1; /* posición del primer atributo vacío, pendiente de ver si está al final */
+        for(int i = inicio; i <= fin; ++i)
+        {
+            char c = (i < fin) ? texto.charAt(i) : ',';
+            if(c == ' ')
+                continue;
+            if(c == ',')
+            {
+                if(nombre.length() == 0)
+                {
+                    if(vacio < 0)
+                        vacio = i;
+                    continue;
+                }
+                if(vacio >= 0)
+                    throw new ErrorSintaxis("atributo vacio", vacio);
+                descriptor.insertar(Atributo.obtener(nombre.toString()));
+                nombre.setLength(0);
+            }
+            else if(esCaracterNombre(c))
+                nombre.append(c);
+            else
+                throw new ErrorSintaxis("caracter no valido en un atributo: '" + c + "'", i);
+        }
+        return descriptor;
+    }
+    
+    /* utilidades */
+    
+    /**
+     * @return Devuelve un valor booleano indicando si la cadena es un nombre de relación válido: no
+     * vacío, y sin espacios ni '('.
+     */
+    static boolean esNombreRelacion(String nombre)
+    {
+        return !nombre.isEmpty() && (nombre.indexOf(' ') < 0) && (nombre.indexOf('(') < 0);
+    }
+    
+    private static boolean esCaracterNombre(char c)
+    {
+        return ((c >= 'A') && (c <= 'Z')) || ((c >= 'a') && (c <= 'z')) || ((c >= '0') && (c <= '9')) ||
+                (c == '_') || (c == '@') || (c == '$') || (c == '%');
+    }
+    
+    private int saltarEspacios(int i, int fin)
+    {
+        while((i < fin) && (texto.charAt(i) == ' '))
+            ++i;
+        return i;
+    }
+    
+    /* comprueba que en la posición i esté el carácter indicado, y devuelve la siguiente posición */
+    private int esperar(char c, int i)
+    {
+        if((i >= texto.length()) || (texto.charAt(i) != c))
+            throw new ErrorSintaxis("se esperaba '" + c + "'", i);
+        return i + 1;
+    }
+    
+    /* comprueba que desde la posición i solo haya espacios */
+    private void esperarFin(int i)
+    {
+        i = saltarEspacios(i, texto.length());
+        if(i != texto.length())
+            throw new ErrorSintaxis("caracteres despues del final de la relacion", i);
+    }
+    
+    /* devuelve la posición de la siguiente aparición del carácter indicado */
+    private int buscar(char c, int i)
+    {
+        int j = i;
+        while((j < texto.length()) && (texto.charAt(j) != c))
+            ++j;
+        if(j == texto.length())
+            throw new ErrorSintaxis("falta '" + c + "'", i);
+        return j;
+    }
+    
+    /* devuelve la posición de la siguiente ->, o -1 si no hay ninguna */
+    private int buscarFlecha(int i, int fin)
+    {
+        for(; i + 1 < fin; ++i)
+            if((texto.charAt(i) == '-') && (texto.charAt(i + 1) == '>'))
+                return i;
+        return -1;
+    }
+    
+    private final CharSequence texto;
+}
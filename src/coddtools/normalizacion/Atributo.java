@@ -24,14 +24,91 @@
 
 package coddtools.normalizacion;
 
+import coddtools.util.Universo;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Representa un atributo de una relación cualquiera.
+ * Los atributos son únicos: hay un solo objeto por cada nombre, que se obtiene con obtener(nombre), y
+ * cada uno tiene un ordinal (0, 1, 2, ..., en orden de creación). Así, dos atributos son iguales si y
+ * solo si son el mismo objeto, y su código hash es su ordinal.
+ * Los atributos se ordenan por nombre (el orden en el que se muestran los descriptores no depende del
+ * orden en el que se crearon los atributos); solo se comparan los nombres de atributos distintos.
+ * El registro de atributos solo guarda referencias débiles: un atributo que ya no se usa (e.g. los de
+ * las relaciones de un lote ya procesado) se libera, y su ordinal se reutiliza para el siguiente
+ * atributo que se cree, luego el registro no crece con el número de nombres distintos que se han usado,
+ * sino con el de atributos vivos. (Como ningún atributo liberado puede compararse con otro, dos
+ * atributos vivos nunca tienen el mismo nombre ni el mismo ordinal)
  * @author victor
  */
-public class Atributo implements Comparable<Atributo> {
-    public Atributo(String nombre)
+public final class Atributo implements Comparable<Atributo> {
+    private Atributo(String nombre, int ordinal)
     {
         this.nombre = nombre;
+        this.ordinal = ordinal;
+    }
+    
+    /**
+     * @return Devuelve el atributo con el nombre indicado (siempre el mismo objeto para el mismo
+     * nombre).
+     */
+    public static Atributo obtener(String nombre)
+    {
+        Referencia referencia = registro.get(nombre);
+        Atributo existente = (referencia != null) ? referencia.get() : null;
+        if(existente != null)
+            return existente;
+        /* los ordinales se asignan de uno en uno */
+        synchronized(registro)
+        {
+            liberar();
+            referencia = registro.get(nombre);
+            Atributo atributo = (referencia != null) ? referencia.get() : null;
+            if(atributo == null)
+            {
+                atributo = new Atributo(nombre, libres.isEmpty() ? siguienteOrdinal++ : libres.pop());
+                referencia = new Referencia(atributo, liberados);
+                Referencia[] aux = porOrdinal;
+                if(atributo.ordinal == aux.length)
+                    aux = Arrays.copyOf(aux, 2 * aux.length);
+                aux[atributo.ordinal] = referencia;
+                porOrdinal = aux; /* publica el atributo antes de que se pueda obtener por su nombre */
+                registro.put(nombre, referencia);
+            }
+            return atributo;
+        }
+    }
+    
+    /* elimina del registro los atributos liberados, y recupera sus ordinales; se invoca con el registro
+    bloqueado */
+    private static void liberar()
+    {
+        Referencia referencia;
+        while((referencia = (Referencia)liberados.poll()) != null)
+        {
+            registro.remove(referencia.nombre, referencia); /* puede haber otra para el mismo nombre */
+            porOrdinal[referencia.ordinal] = null;
+            libres.push(referencia.ordinal);
+        }
+    }
+    
+    /**
+     * @return Devuelve el universo formado por todos los atributos, en el que el índice de cada
+     * atributo es su ordinal. Permite guardar descriptores como vectores de bits
+     * (FabricaAlmacenes.bits); en ese caso sus atributos se recorren por orden de creación, no por
+     * nombre. Un vector de bits no referencia a sus atributos, así que los atributos cuyo índice se
+     * obtiene de este universo dejan de liberarse (su ordinal no puede pasar a otro atributo mientras
+     * algún vector de bits lo contenga).
+     */
+    public static Universo<Atributo> obtenerUniverso()
+    {
+        return UNIVERSO;
     }
     
     public String obtenerNombre() 
@@ -39,6 +116,14 @@ public class Atributo implements Comparable<Atributo> {
         return nombre;
     }
     
+    /**
+     * @return Devuelve el ordinal del atributo (distinto para cada atributo).
+     */
+    public int obtenerOrdinal()
+    {
+        return ordinal;
+    }
+    
     @Override
     public String toString()
     {
@@ -48,9 +133,69 @@ public class Atributo implements Comparable<Atributo> {
     @Override
     public int compareTo(Atributo otro) 
     {
+        if(this == otro)
+            return 0;
         return obtenerNombre().compareTo(otro.obtenerNombre());
     } 
     
-    private String nombre;
-
+    @Override
+    public boolean equals(Object otro)
+    {
+        return this == otro;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return ordinal;
+    }
+    
+    /* referencia débil a un atributo del registro */
+    private static final class Referencia extends WeakReference<Atributo>
+    {
+        Referencia(Atributo atributo, ReferenceQueue<Atributo> cola)
+        {
+            super(atributo, cola);
+            nombre = atributo.nombre;
+            ordinal = atributo.ordinal;
+        }
+        
+        final String nombre;
+        final int ordinal;
+        Atributo fijado; /* el propio atributo, si no debe liberarse; null en otro caso */
+    }
+    
+    private static final Map<String, Referencia> registro = new ConcurrentHashMap<String, Referencia>(); /* atributo
+    asociado a cada nombre */
+    private static volatile Referencia[] porOrdinal = new Referencia[64]; /* atributo asociado a cada
+    ordinal */
+    private static final ReferenceQueue<Atributo> liberados = new ReferenceQueue<Atributo>(); /* referencias
+    de los atributos liberados, aún en el registro */
+    private static final Deque<Integer> libres = new ArrayDeque<Integer>(); /* ordinales de atributos
+    liberados, que pueden reutilizarse */
+    private static int siguienteOrdinal; /* primer ordinal que no se ha usado nunca */
+    
+    private static final Universo<Atributo> UNIVERSO = new Universo<Atributo>() 
+        {
+            @Override
+            public int obtenerIndice(Atributo atributo)
+            {
+                if(atributo == null)
+                    return -1;
+                Referencia referencia = porOrdinal[atributo.ordinal];
+                if(referencia.fijado == null)
+                    referencia.fijado = atributo; /* ver obtenerUniverso() */
+                return atributo.ordinal;
+            }
+            
+            @Override
+            public Atributo obtenerElemento(int indice)
+            {
+                Referencia referencia = porOrdinal[indice];
+                return (referencia != null) ? referencia.get() : null;
+            }
+        };
+    
+    private final String nombre;
+    private final int ordinal;
 }
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memoriza los cierres de descriptores calculados sobre un conjunto de dependencias funcionales.
+ * La cache está acotada: cuando se supera su capacidad se descarta el cierre usado hace más tiempo
+ * (LRU). Lleva la cuenta de aciertos y fallos para poder dimensionarla.
+ * Los cierres se guardan en forma compacta; un cierre guardado solo se devuelve para descriptores
+ * del mismo universo de atributos, luego al reconstruirse el índice de cierres las entradas
+ * anteriores dejan de usarse.
+ * @author victor
+ */
+public class CacheCierres {
+    /**
+     * Crea una cache de cierres.
+     * @param capacidad Es el número máximo de cierres memorizados. Si es 0, la cache no
+     * memoriza ningún cierre.
+     */
+    public CacheCierres(int capacidad)
+    {
+        assert capacidad >= 0;
+        this.capacidad = capacidad;
+        this.cierres = new LinkedHashMap<DescriptorCompacto, DescriptorCompacto>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DescriptorCompacto, DescriptorCompacto> eldest)
+            {
+                return size() > CacheCierres.this.capacidad;
+            }
+        };
+    }
+    
+    /**
+     * @return Devuelve el cierre del descriptor bajo las dependencias del índice indicado. Si el cierre
+     * estaba memorizado, no se vuelve a calcular.
+     */
+    public DescriptorCompacto obtenerCierre(final IndiceCierre indice, final DescriptorCompacto descriptor)
+    {
+        DescriptorCompacto cierre;
+        synchronized(this)
+        {
+            cierre = cierres.get(descriptor);
+            if(cierre != null)
+            {
+                aciertos++;
+                return new DescriptorCompacto(cierre);
+            }
+            fallos++;
+        }
+        /* el cálculo del cierre se hace fuera de la sección crítica */
+        cierre = indice.obtenerCierre(descriptor);
+        if(capacidad > 0)
+        {
+            synchronized(this)
+            {
+                cierres.put(new DescriptorCompacto(descriptor), new DescriptorCompacto(cierre));
+            }
+        }
+        return cierre;
+    }
+    
+    /**
+     * Descarta todos los cierres memorizados. (Los contadores de aciertos y fallos se conservan)
+     */
+    public synchronized void invalidar()
+    {
+        cierres.clear();
+    }
+    
+    /**
+     * Pone a cero los contadores de aciertos y fallos.
+     */
+    public synchronized void reiniciarContadores()
+    {
+        aciertos = 0;
+        fallos = 0;
+    }
+    
+    /* Consultores */
+    /**
+     * @return Devuelve el número de cierres que se obtuvieron de la cache.
+     */
+    public synchronized long obtenerAciertos()
+    {
+        return aciertos;
+    }
+    
+    /**
+     * @return Devuelve el número de cierres que tuvieron que calcularse por no estar en la cache.
+     */
+    public synchronized long obtenerFallos()
+    {
+        return fallos;
+    }
+    
+    /**
+     * @return Devuelve el número de cierres memorizados actualmente.
+     */
+    public synchronized int obtenerTamano()
+    {
+        return cierres.size();
+    }
+    
+    /**
+     * @return Devuelve el número máximo de cierres que pueden memorizarse.
+     */
+    public synchronized int obtenerCapacidad()
+    {
+        return capacidad;
+    }
+    
+    /**
+     * Cambia el número máximo de cierres memorizados. Si la nueva capacidad es menor que el número de
+     * cierres memorizados, se descartan los usados hace más tiempo.
+     */
+    public synchronized void establecerCapacidad(int capacidad)
+    {
+        assert capacidad >= 0;
+        this.capacidad = capacidad;
+        while(cierres.size() > capacidad)
+        {
+            cierres.remove(cierres.keySet().iterator().next());
+        }
+    }
+    
+    /**
+     * Es la capacidad de las caches asociadas a los conjuntos de dependencias funcionales.
+     */
+    public static final int CAPACIDAD_POR_DEFECTO = 1024;
+    
+    private int capacidad;
+    private long aciertos, fallos;
+    private final LinkedHashMap<DescriptorCompacto, DescriptorCompacto> cierres;
+}
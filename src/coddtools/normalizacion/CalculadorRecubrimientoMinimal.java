@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.Arrays;
+
+/**
+ * Calcula el recubrimiento minimal de un conjunto de dependencias funcionales en una única pasada
+ * sobre un vector de dependencias en forma compacta, sin copiar el conjunto en cada fase:
+ * 1. Se distribuye el determinado de cada dependencia (X -> A1, ..., X -> An), descartando a la vez
+ * las dependencias triviales.
+ * 2. Se eliminan los atributos ajenos de los determinantes. Las dependencias resultantes son
+ * equivalentes a las originales, luego todos los cierres de esta fase se calculan con el índice de
+ * cierres del conjunto original.
+ * 3. Se eliminan las dependencias redundantes. Se construye un único índice sobre las dependencias
+ * reducidas, y cada dependencia se descarta desactivándola en el índice, en lugar de construir un
+ * nuevo conjunto sin ella.
+ * Las dependencias se recorren en cada fase en el mismo orden que en DependenciasFuncionales, luego el
+ * resultado es equivalente al del algoritmo original.
+ * @author victor
+ */
+public class CalculadorRecubrimientoMinimal {
+    /**
+     * @param dfs Es el conjunto de dependencias funcionales cuyo recubrimiento minimal quiere
+     * calcularse.
+     */
+    public CalculadorRecubrimientoMinimal(final DependenciasFuncionales dfs)
+    {
+        this.dfs = dfs;
+    }
+    
+    /**
+     * @return Devuelve el recubrimiento minimal del conjunto de dependencias funcionales.
+     */
+    public DependenciasFuncionales calcular()
+    {
+        DependenciasFuncionales minimal = new DependenciasFuncionales();
+        if(dfs.esVacio())
+            return minimal;
+        
+        IndiceCierre indice = dfs.obtenerIndiceCierre();
+        UniversoAtributos universo = indice.obtenerUniverso();
+        
+        /* un único atributo implicado, sin dependencias triviales */
+        int n = 0;
+        for(DependenciaFuncional df : dfs)
+            n += df.obtenerDeterminado().obtenerCardinal();
+        Elemental[] elementales = new Elemental[n];
+        n = 0;
+        for(DependenciaFuncional df : dfs)
+        {
+            DescriptorCompacto determinante = universo.compactar(df.obtenerDeterminante());
+            for(Atributo atributo : df.obtenerDeterminado())
+            {
+                int determinado = universo.obtenerIndice(atributo);
+                if(!determinante.contiene(determinado))
+                    elementales[n++] = new Elemental(determinante, determinado);
+            }
+        }
+        n = ordenar(elementales, n);
+        
+        /* eliminar atributos extraños */
+        for(int i = 0; i != n; ++i)
+        {
+            Elemental df = elementales[i];
+            if(df.determinante.obtenerCardinal() > 1)
+            {
+                DescriptorCompacto determinado = new DescriptorCompacto(universo);
+                determinado.insertar(df.determinado);
+                df.determinante = indice.reducirDeterminante(df.determinante, determinado);
+            }
+        }
+        n = ordenar(elementales, n);
+        
+        /* eliminar dependencias redundantes */
+        DescriptorCompacto[] determinantes = new DescriptorCompacto[n];
+        DescriptorCompacto[] determinados = new DescriptorCompacto[n];
+        for(int i = 0; i != n; ++i)
+        {
+            determinantes[i] = elementales[i].determinante;
+            determinados[i] = new DescriptorCompacto(universo);
+            determinados[i].insertar(elementales[i].determinado);
+        }
+        IndiceCierre indiceReducido = new IndiceCierre(universo, determinantes, determinados);
+        boolean[] activas = new boolean[n];
+        Arrays.fill(activas, true);
+        for(int i = 0; i != n; ++i)
+        {
+            activas[i] = false; /* suponemos que es redundante */
+            if(!indiceReducido.obtenerCierre(determinantes[i], activas).contiene(elementales[i].determinado))
+                activas[i] = true; /* si no lo es, la reactivamos */
+        }
+        
+        for(int i = 0; i != n; ++i)
+            if(activas[i])
+                minimal.insertar(new DependenciaFuncional(determinantes[i].aDescriptor(), determinados[i].aDescriptor()));
+        return minimal;
+    }
+    
+    /**
+     * Ordena las n primeras dependencias del vector (con el mismo orden que DependenciaFuncional) y
+     * elimina las repetidas.
+     * @return Devuelve el número de dependencias distintas, que quedan al principio del vector.
+     */
+    private static int ordenar(final Elemental[] elementales, int n)
+    {
+        Arrays.sort(elementales, 0, n);
+        int distintas = 0;
+        for(int i = 0; i != n; ++i)
+            if((distintas == 0) || (elementales[distintas - 1].compareTo(elementales[i]) != 0))
+                elementales[distintas++] = elementales[i];
+        return distintas;
+    }
+    
+    /* dependencia funcional cuyo determinado es un único atributo */
+    private static class Elemental implements Comparable<Elemental>
+    {
+        Elemental(final DescriptorCompacto determinante, int determinado)
+        {
+            this.determinante = determinante;
+            this.determinado = determinado;
+        }
+        
+        @Override
+        public int compareTo(Elemental otra)
+        {
+            int r;
+            if((r = determinante.compareTo(otra.determinante)) != 0)
+                return r;
+            return determinado - otra.determinado;
+        }
+        
+        DescriptorCompacto determinante;
+        final int determinado;
+    }
+    
+    private final DependenciasFuncionales dfs;
+}
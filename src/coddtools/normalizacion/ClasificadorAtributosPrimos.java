@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+/**
+ * Determina qué atributos de una relación son primos (forman parte de alguna clave mínima) sin
+ * necesidad, en la mayoría de los casos, de generar todas las claves mínimas.
+ * Sobre el recubrimiento minimal de la relación, los atributos se clasifican así:
+ * - Los que no aparecen en el determinado de ninguna dependencia (aparecen solo en determinantes
+ * o en ninguna dependencia) no pueden obtenerse a partir de otros atributos, luego forman parte de
+ * todas las claves mínimas (son el núcleo).
+ * - Los que aparecen en algún determinado pero en ningún determinante no forman parte de ninguna
+ * clave mínima: si K es una clave que lo contiene, K sin él sigue siendo superclave.
+ * - Los que aparecen en ambos lados se deciden mediante búsquedas dirigidas: para cada uno se
+ * intenta construir una clave que lo contenga. Solo si estas búsquedas no bastan se recorren las
+ * claves mínimas (bajo demanda) hasta decidir todos los atributos pendientes.
+ * @author victor
+ */
+public class ClasificadorAtributosPrimos {
+    /**
+     * @param generador Es el generador de claves de la relación.
+     * @param recubrimiento Es el recubrimiento minimal de las dependencias de la relación (el mismo
+     * conjunto con el que se construyó el generador).
+     */
+    public ClasificadorAtributosPrimos(final GeneradorClaves generador, final DependenciasFuncionales recubrimiento)
+    {
+        UniversoAtributos universo = generador.obtenerUniverso();
+        DescriptorCompacto enDeterminantes = new DescriptorCompacto(universo);
+        DescriptorCompacto enDeterminados = new DescriptorCompacto(universo);
+        for(DependenciaFuncional df : recubrimiento)
+        {
+            enDeterminantes.insertar(universo.compactar(df.obtenerDeterminante()));
+            enDeterminados.insertar(universo.compactar(df.obtenerDeterminado()));
+        }
+        
+        /* clasificación inmediata */
+        nucleo = universo.obtenerTodos();
+        nucleo.eliminar(enDeterminados);
+        primos = new DescriptorCompacto(nucleo);
+        DescriptorCompacto pendientes = enDeterminados.interseccion(enDeterminantes);
+        
+        /* búsquedas dirigidas: construir una superclave que contenga al atributo y que no pueda
+        reducirse quitando otro atributo; si tampoco puede reducirse quitando el propio atributo, es
+        una clave mínima que lo contiene. */
+        for(int i = pendientes.siguiente(0); i >= 0; i = pendientes.siguiente(i + 1))
+        {
+            if(primos.contiene(i))
+                continue; /* ya se encontró en otra clave */
+            DescriptorCompacto superclave = generador.reducir(universo.obtenerTodos(), i);
+            superclave.eliminar(i);
+            if(!generador.esSuperClave(superclave))
+            {
+                superclave.insertar(i);
+                primos.insertar(superclave); /* todos los atributos de una clave son primos */
+            }
+        }
+        pendientes.eliminar(primos);
+        
+        /* búsqueda exhaustiva de los restantes, recorriendo las claves bajo demanda */
+        if(!pendientes.esVacio())
+        {
+            for(Descriptor clave : generador)
+            {
+                DescriptorCompacto compacta = generador.compactar(clave);
+                primos.insertar(compacta);
+                pendientes.eliminar(compacta);
+                if(pendientes.esVacio())
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * @return Devuelve los atributos primos de la relación.
+     */
+    public DescriptorCompacto obtenerPrimos()
+    {
+        return new DescriptorCompacto(primos);
+    }
+    
+    /**
+     * @return Devuelve los atributos que forman parte de todas las claves mínimas de la relación.
+     */
+    public DescriptorCompacto obtenerNucleo()
+    {
+        return new DescriptorCompacto(nucleo);
+    }
+    
+    private final DescriptorCompacto primos; /* atributos que forman parte de alguna clave mínima */
+    private final DescriptorCompacto nucleo; /* atributos que forman parte de todas las claves mínimas */
+}
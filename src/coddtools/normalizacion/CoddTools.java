@@ -6,7 +6,14 @@
 
 package coddtools.normalizacion;
 
-import coddtools.util.Conjunto;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -38,17 +45,52 @@ public class CoddTools {
     }
 
     /**
-     * @param args the command line arguments
+     * Modo por lotes: normaliza todas las relaciones de un fichero (una por línea) y escribe el resumen
+     * del procesamiento en la salida de error.
+     * @param args entrada [salida [hilos [capacidad]]]. Si no se indica el fichero de salida, se usa la
+     * salida estándar. La capacidad es el número máximo de árboles de descomposición memorizados (0 para
+     * no memorizar ninguno); por defecto, TablaDescomposiciones.CAPACIDAD_POR_DEFECTO.
+     */
+    public static void procesarLote(String[] args) throws IOException
+    {
+        int hilos = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int capacidad = (args.length > 3) ? Integer.parseInt(args[3]) : TablaDescomposiciones.CAPACIDAD_POR_DEFECTO;
+        ProcesadorLotes procesador = new ProcesadorLotes(hilos, 4 * hilos, capacidad);
+        try(BufferedReader entrada = new BufferedReader(new InputStreamReader(new FileInputStream(args[0]), "UTF-8"));
+            Writer salida = new BufferedWriter(new OutputStreamWriter((args.length > 1) ? new FileOutputStream(args[1]) : System.out, "UTF-8"))) {
+            ProcesadorLotes.Resumen resumen = procesador.procesar(entrada, salida);
+            System.err.println(resumen);
+        }
+    }
+
+    /**
+     * @param args the command line arguments. Si se indica algún argumento, se procesa un lote de
+     * relaciones (ver procesarLote); en otro caso se lee una relación de la entrada estándar.
      */
     public static void main(String[] args) {        
+        if(args.length > 0)
+        {
+            try {
+                procesarLote(args);
+            }
+            catch(IOException | RuntimeException e) {
+                System.err.println(e);
+                System.exit(1);
+            }
+            return;
+        }
         try(Scanner scan = new Scanner(System.in)) {
             
             Relacion r = new Relacion("R", introducirDescriptor(scan), introducirDependencias(scan));
             
             
-            Conjunto<Relacion> finales = new DescomposicionRecursiva(r, FormaNormal.FNBC, true, true).obtenerRelacionesFinales();
-            for(Relacion hija : finales)
-                System.out.println(hija + " && " + hija.obtenerFormaNormal()); 
+            DescomposicionRecursiva d = new DescomposicionRecursiva(r, FormaNormal.FNBC, true, true);
+            for(NodoDescomposicionRecursiva nodo : d.obtenerNodoRaiz().obtenerNodosFinales())
+            {
+                Relacion hija = nodo.obtenerRelacion();
+                System.out.println(hija + " && " + hija.obtenerFormaNormal() + 
+                        (nodo.esProyeccionIncompleta() ? " (proyeccion incompleta)" : "")); 
+            }
             /*
             DependenciasFuncionales dfs = introducirDependencias(scan);
             System.out.println(dfs.esCompleta(dfs.iterator().next())); */
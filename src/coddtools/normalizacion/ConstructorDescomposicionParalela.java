@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import coddtools.util.Conjunto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Genera descomposiciones recursivas (DescomposicionRecursiva) repartiendo el trabajo entre varios
+ * hilos. Los subárboles de relaciones hermanas son independientes, luego cada uno se genera en una
+ * tarea distinta de un ForkJoinPool; el análisis de cada relación (recubrimiento minimal, claves,
+ * forma normal) se realiza en el hilo que genera su nodo.
+ * Las relaciones con pocos atributos se descomponen en el propio hilo, sin crear nuevas tareas, ya que
+ * el coste de repartir el trabajo superaría al de analizarlas.
+ * El árbol obtenido es el mismo que con los constructores de DescomposicionRecursiva.
+ * @author victor
+ */
+public class ConstructorDescomposicionParalela {
+    /* Constructores */
+    /**
+     * Construye un constructor que usa tantos hilos como procesadores disponibles, y el umbral
+     * secuencial por defecto.
+     */
+    public ConstructorDescomposicionParalela()
+    {
+        this(Runtime.getRuntime().availableProcessors(), UMBRAL_SECUENCIAL_POR_DEFECTO);
+    }
+    
+    /**
+     * @param paralelismo Es el número de hilos que se usarán (al menos uno).
+     * @param umbralSecuencial Las relaciones con menos atributos que este umbral se descomponen
+     * recursivamente en el mismo hilo, sin repartir sus subárboles en nuevas tareas.
+     */
+    public ConstructorDescomposicionParalela(int paralelismo, int umbralSecuencial)
+    {
+        if((paralelismo < 1) || (umbralSecuencial < 0))
+            throw new IllegalArgumentException();
+        hilos = new ForkJoinPool(paralelismo);
+        this.umbralSecuencial = umbralSecuencial;
+    }
+    
+    /**
+     * Descompone una relación de forma recursiva.
+     * @see DescomposicionRecursiva#DescomposicionRecursiva(Relacion, FormaNormal, boolean, boolean, EstrategiaDescomposicion) 
+     */
+    public DescomposicionRecursiva construir(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia)
+    {
+        return construir(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, null);
+    }
+    
+    /**
+     * Descompone una relación de forma recursiva, reutilizando los árboles memorizados en una tabla.
+     * @param tabla Es la tabla de árboles memorizados, o null para no memorizarlos.
+     * @see DescomposicionRecursiva#DescomposicionRecursiva(Relacion, FormaNormal, boolean, boolean, EstrategiaDescomposicion, TablaDescomposiciones) 
+     */
+    public DescomposicionRecursiva construir(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia, TablaDescomposiciones tabla)
+    {
+        return new DescomposicionRecursiva(hilos.invoke(new TareaNodo(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, tabla)));
+    }
+    
+    /**
+     * Descompone una relación de forma recursiva, con la estrategia binaria.
+     * @see DescomposicionRecursiva#DescomposicionRecursiva(Relacion, FormaNormal, boolean, boolean) 
+     */
+    public DescomposicionRecursiva construir(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida)
+    {
+        return construir(r, fnDeseada, debeSerLegal, debeSerSinPerdida, EstrategiaDescomposicion.BINARIA);
+    }
+    
+    /**
+     * Libera los hilos del constructor. Después no podrán generarse más descomposiciones.
+     */
+    public void cerrar()
+    {
+        hilos.shutdown();
+    }
+    
+    /* Consultores */
+    /**
+     * @return Devuelve el número de hilos que usa este constructor.
+     */
+    public int obtenerParalelismo()
+    {
+        return hilos.getParallelism();
+    }
+    
+    /**
+     * @return Devuelve el número de atributos a partir del cual se reparten los subárboles de una
+     * relación en varias tareas.
+     */
+    public int obtenerUmbralSecuencial()
+    {
+        return umbralSecuencial;
+    }
+    
+    /* genera el nodo de una relación y, en tareas separadas, los subárboles de sus relaciones hijas */
+    private class TareaNodo extends RecursiveTask<NodoDescomposicionRecursiva>
+    {
+        TareaNodo(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia, TablaDescomposiciones tabla)
+        {
+            this.r = r;
+            this.fnDeseada = fnDeseada;
+            this.debeSerLegal = debeSerLegal;
+            this.debeSerSinPerdida = debeSerSinPerdida;
+            this.estrategia = estrategia;
+            this.tabla = tabla;
+        }
+        
+        @Override
+        protected NodoDescomposicionRecursiva compute()
+        {
+            if(tabla != null)
+            {
+                NodoDescomposicionRecursiva nodo = tabla.buscar(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia);
+                if(nodo != null)
+                    return nodo;
+            }
+            NodoDescomposicionRecursiva nodo = generar();
+            if(tabla != null)
+                tabla.guardar(fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, nodo);
+            return nodo;
+        }
+        
+        private NodoDescomposicionRecursiva generar()
+        {
+            if(r.obtenerAtributos().obtenerCardinal() < umbralSecuencial)
+                return new NodoDescomposicionRecursiva(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, tabla);
+            
+            Descomposicion d;
+            Conjunto<NodoDescomposicionRecursiva> hijos = new Conjunto<NodoDescomposicionRecursiva>();
+            try
+            {
+                d = NodoDescomposicionRecursiva.descomponer(r, fnDeseada, estrategia);
+            }
+            catch(ProyeccionIncompleta e)
+            {
+                return new NodoDescomposicionRecursiva(r, null, hijos, true);
+            }
+            if(NodoDescomposicionRecursiva.cumpleRequisitos(d, debeSerLegal, debeSerSinPerdida))
+            {
+                List<TareaNodo> tareas = new ArrayList<TareaNodo>();
+                for(Relacion hija : d.obtenerRelacionesHijas())
+                    tareas.add(new TareaNodo(hija, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, tabla));
+                invokeAll(tareas);
+                for(TareaNodo tarea : tareas)
+                    hijos.insertar(tarea.join());
+            }
+            return new NodoDescomposicionRecursiva(r, d, hijos);
+        }
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Relacion r;
+        private final FormaNormal fnDeseada;
+        private final boolean debeSerLegal, debeSerSinPerdida;
+        private final EstrategiaDescomposicion estrategia;
+        private final TablaDescomposiciones tabla;
+    }
+    
+    /**
+     * Es el umbral secuencial por defecto (número de atributos).
+     */
+    public static final int UMBRAL_SECUENCIAL_POR_DEFECTO = 8;
+    
+    private final ForkJoinPool hilos;
+    private final int umbralSecuencial;
+}
@@ -126,6 +126,22 @@ public class DependenciaFuncional implements Comparable<DependenciaFuncional> {
         return obtenerDeterminado().compareTo(otra.obtenerDeterminado());
     }
     
+    /**
+     * Dos dependencias funcionales son iguales si tienen el mismo determinante y el mismo determinado
+     * (de acuerdo con compareTo).
+     */
+    @Override
+    public boolean equals(Object otra)
+    {
+        return (otra instanceof DependenciaFuncional) && (compareTo((DependenciaFuncional)otra) == 0);
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return 31 * obtenerDeterminante().hashCode() + obtenerDeterminado().hashCode();
+    }
+    
     /**
      *
      * @param str Es una cadena con el siguiente formato: X -> Y, tanto X como Y son descriptores.
@@ -137,17 +153,7 @@ public class DependenciaFuncional implements Comparable<DependenciaFuncional> {
      */
     public static DependenciaFuncional fromString(String str) throws IllegalArgumentException
     {
-        /* verificar si el formato es válido */
-        if(!str.matches(".+->.+"))
-            throw new IllegalArgumentException();
-        String[] tokens = str.split("->");
-        if(tokens.length != 2)
-            throw new IllegalArgumentException();
-        Descriptor determinante = Descriptor.fromString(tokens[0]);
-        Descriptor determinado = Descriptor.fromString(tokens[1]);
-        if(determinante.esVacio() || determinado.esVacio())
-            throw new IllegalArgumentException();
-        return new DependenciaFuncional(determinante, determinado);
+        return new AnalizadorSintactico(str).analizarDependencia();
     }
    
     private final Descriptor determinante, determinado;
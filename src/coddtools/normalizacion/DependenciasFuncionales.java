@@ -24,8 +24,8 @@
 
 package coddtools.normalizacion;
 
-import coddtools.util.Combinaciones;
 import coddtools.util.Conjunto;
+import coddtools.util.FabricaAlmacenes;
 import java.util.Iterator;
 
 /**
@@ -39,6 +39,28 @@ public class DependenciasFuncionales extends Conjunto<DependenciaFuncional>{
         
     }
     
+    /**
+     * Construye un conjunto de dependencias funcionales vacío, cuyas dependencias se guardan en un
+     * almacén creado por la fábrica indicada.
+     */
+    public DependenciasFuncionales(final FabricaAlmacenes fabrica)
+    {
+        super(fabrica);
+    }
+    
+    /**
+     * Construye una copia de otro conjunto de dependencias funcionales (ver Conjunto(Conjunto)). La
+     * copia reutiliza el índice de cierres del otro conjunto, si ya se había construido.
+     */
+    public DependenciasFuncionales(final DependenciasFuncionales otras)
+    {
+        super(otras);
+        synchronized(otras)
+        {
+            indiceCierre = otras.indiceCierre;
+        }
+    }
+    
     /* obtención de cierres */
     /**
      * @return Devuelve el cierre de un descriptor bajo este conjunto de
@@ -46,29 +68,75 @@ public class DependenciasFuncionales extends Conjunto<DependenciaFuncional>{
      */
     public Descriptor obtenerCierre(final Descriptor descriptor)
     {
-        Descriptor cierre = new Descriptor();
-        cierre.insertar(descriptor);
-        if(!esVacio())
+        return obtenerIndiceCierre().obtenerCierre(descriptor, cacheCierres);
+    }
+    
+    /**
+     * @return Devuelve el índice que permite calcular cierres de descriptores bajo este conjunto
+     * de dependencias funcionales en tiempo lineal. El índice se construye la primera vez que se
+     * solicita y se reutiliza mientras el conjunto no se modifique.
+     */
+    public synchronized IndiceCierre obtenerIndiceCierre()
+    {
+        if(indiceCierre == null)
+            indiceCierre = new IndiceCierre(this);
+        return indiceCierre;
+    }
+    
+    /**
+     * @return Devuelve la cache en la que se memorizan los cierres de descriptores calculados
+     * sobre este conjunto de dependencias funcionales. Permite consultar sus aciertos y fallos, y
+     * cambiar su capacidad.
+     */
+    public CacheCierres obtenerCacheCierres()
+    {
+        return cacheCierres;
+    }
+    
+    /**
+     * Elimina una dependencia del conjunto. A diferencia de eliminar(), si el índice de cierres ya se
+     * había construido no se descarta, sino que se conserva con la dependencia desactivada.
+     * @return Devuelve un valor booleano indicando si la dependencia estaba en el conjunto.
+     * @see IndiceCierre#desactivar
+     */
+    synchronized boolean eliminarConservandoIndice(final DependenciaFuncional df)
+    {
+        IndiceCierre indice = indiceCierre;
+        if(!eliminar(df))
+            return false;
+        if(indice != null)
+            indiceCierre = indice.desactivar(df);
+        return true;
+    }
+    
+    @Override
+    protected synchronized void modificado()
+    {
+        /* el índice, los cierres y las proyecciones memorizadas ya no se corresponden con este
+        conjunto */
+        indiceCierre = null;
+        proyeccion = null;
+        cacheCierres.invalidar();
+    }
+    
+    /* proyección */
+    /**
+     * @return Devuelve un recubrimiento minimal de las dependencias funcionales del cierre de este
+     * conjunto cuyos atributos están todos en el descriptor indicado (la proyección de este conjunto
+     * sobre dicho descriptor). Las proyecciones se memorizan mientras este conjunto no se modifique.
+     * @throws ProyeccionIncompleta si calcular la proyección supera el presupuesto.
+     * @see ProyeccionDependencias
+     */
+    public DependenciasFuncionales obtenerProyeccion(final Descriptor atributos) throws ProyeccionIncompleta
+    {
+        ProyeccionDependencias aux;
+        synchronized(this)
         {
-            while(true)
-            {
-                /* buscamos la primera DF X->Y tal que X sea subconjunto del cierre, e Y
-                no sea subconjunto del cierre */
-                Iterator<DependenciaFuncional> it = iterator();
-                DependenciaFuncional df = it.next();
-                while(it.hasNext() && ((!df.obtenerDeterminante().esContenido(cierre)) ||
-                        (df.obtenerDeterminado().esContenido(cierre))))
-                    df = it.next();
-                /* si existe una df X->Y que lo cumpla insertamos Y en el cierre, y seguimos buscando */
-                if(df.obtenerDeterminante().esContenido(cierre) && !df.obtenerDeterminado().esContenido(cierre))
-                {
-                    cierre.insertar(df.obtenerDeterminado());
-                    continue;
-                }
-                break;
-            }
+            if(proyeccion == null)
+                proyeccion = new ProyeccionDependencias(this, ProyeccionDependencias.PRESUPUESTO_POR_DEFECTO);
+            aux = proyeccion;
         }
-        return cierre;
+        return aux.proyectar(atributos);
     }
     
     /**
@@ -90,32 +158,14 @@ public class DependenciasFuncionales extends Conjunto<DependenciaFuncional>{
     public boolean esCompleta(final DependenciaFuncional df)
     {
         assert contiene(df);
-        
-        Descriptor determinante = df.obtenerDeterminante();
-        if(determinante.esAtributoUnico())
-            return true;
-        
-        /* existe algún subconjunto de n-1 atributos, donde n es el número de atributos del determinante,
-        si existe algún subconjunto de menos de n-1 atributos que determine al determinado, entonces,
-        exisitirá un subconjunto de n-1 elementos que también lo determine.
-        */
-       Iterator<Conjunto<Atributo>> it = new Combinaciones<Atributo>(determinante, determinante.obtenerCardinal() - 1).iterator();
-       /* al menos existirá una combinación... */
-       Descriptor subconjunto = new Descriptor();
-       subconjunto.insertar(it.next());
-       while(it.hasNext() && !df.obtenerDeterminado().esContenido(obtenerCierre(subconjunto)))
-       {
-           subconjunto.eliminarTodo();
-           subconjunto.insertar(it.next());
-       }
-       
-       return !df.obtenerDeterminado().esContenido(obtenerCierre(subconjunto));
+        return obtenerAtributosAjenos(df) == null;
     }
     
     /**
      * Obtiene los atributos ajenos de una dependencia funcional. Si X -> Y es la dependencia
      * funcional, si existe un conjunto Z tal que X / Z -> Y es completa, entonces, los atributos de
      * Z son ajenos a la dependencia original.
+     * Se calcula como mucho un cierre por cada atributo del determinante.
      * @param df Es una dependencia funcional que debe existir en este conjunto de dependencias 
      * funcionales.
      * @return Devuelve los atributos ajenos, o null si la dependencia es completa.
@@ -123,37 +173,16 @@ public class DependenciasFuncionales extends Conjunto<DependenciaFuncional>{
     public Descriptor obtenerAtributosAjenos(final DependenciaFuncional df)
     {
         assert contiene(df);
-        return _obtenerAtributosAjenos(df);
-    }
-    
-    
-    private Descriptor _obtenerAtributosAjenos(final DependenciaFuncional df)
-    {
-        Descriptor determinante = df.obtenerDeterminante();
-        if(determinante.esAtributoUnico())
+        if(df.obtenerDeterminante().esAtributoUnico())
             return null;
         
-       Iterator<Conjunto<Atributo>> it = new Combinaciones<Atributo>(determinante, determinante.obtenerCardinal() - 1).iterator();
-       /* al menos existirá una combinación... */
-       Descriptor subconjunto = new Descriptor();
-       subconjunto.insertar(it.next());
-       while(it.hasNext() && !df.obtenerDeterminado().esContenido(obtenerCierre(subconjunto)))
-       {
-           subconjunto.eliminarTodo();
-           subconjunto.insertar(it.next());
-       }
-       
-       if(df.obtenerDeterminado().esContenido(obtenerCierre(subconjunto)))
-       {
-           Descriptor aux = _obtenerAtributosAjenos(new DependenciaFuncional(subconjunto, df.obtenerDeterminado()));
-           if(aux != null)
-               subconjunto.eliminar(aux);
-           Descriptor ajenos = new Descriptor();
-           ajenos.insertar(determinante);
-           ajenos.eliminar(subconjunto);
-           return ajenos;
-       }
-       return null;
+        IndiceCierre indice = obtenerIndiceCierre();
+        UniversoAtributos universo = indice.obtenerUniverso();
+        DescriptorCompacto determinante = universo.compactar(df.obtenerDeterminante());
+        DescriptorCompacto reducido = indice.reducirDeterminante(determinante, universo.compactar(df.obtenerDeterminado()));
+        if(reducido.obtenerCardinal() == determinante.obtenerCardinal())
+            return null;
+        return determinante.diferencia(reducido).aDescriptor();
     }
     
     /**
@@ -236,73 +265,7 @@ public class DependenciasFuncionales extends Conjunto<DependenciaFuncional>{
      */
     public DependenciasFuncionales obtenerRecubrimientoMinimal()
     {
-        DependenciasFuncionales minimal = new DependenciasFuncionales();
-        if(!esVacio())
-        {
-            minimal.insertar(this);
-            DependenciasFuncionales aux = new DependenciasFuncionales();
-            aux.insertar(minimal);
-            
-            /* un único atributo implicado */
-            Iterator<DependenciaFuncional> it = minimal.iterator();
-            while(it.hasNext())
-            {
-                DependenciaFuncional df = it.next();
-                aux.eliminar(df);
-                aux.insertar(df.distribuirDeterminado());
-            }
-            
-            minimal.eliminarTodo();
-            minimal.insertar(aux);
-            
-            /* eliminar dependencias triviales */
-            it = minimal.iterator();
-            while(it.hasNext())
-            {
-                DependenciaFuncional df = it.next();
-                if(df.esTrivial())
-                    aux.eliminar(df);
-            }
-            
-            minimal.eliminarTodo();
-            minimal.insertar(aux);            
-            
-            /* eliminar atributos extraños */
-            it = minimal.iterator();
-            while(it.hasNext())
-            {
-                DependenciaFuncional df = it.next();
-                Descriptor ajenos = minimal.obtenerAtributosAjenos(df);
-                if(ajenos != null) /* si no es completa */
-                {
-                    Descriptor noAjenos = new Descriptor();
-                    noAjenos.insertar(df.obtenerDeterminante());
-                    noAjenos.eliminar(ajenos);
-                    DependenciaFuncional completa = new DependenciaFuncional(noAjenos, df.obtenerDeterminado());
-                    
-                    aux.eliminar(df);
-                    aux.insertar(completa);
-                }
-            }
-            
-            minimal.eliminarTodo();
-            minimal.insertar(aux);
-            
-            /* eliminar dependencias redundantes */
-            it = minimal.iterator();
-            while(it.hasNext())
-            {          
-                DependenciaFuncional df = it.next();
-                aux.eliminar(df); /* suponemos que es redundante */
-                
-                if(!aux.obtenerCierre(df.obtenerDeterminante()).contiene(df.obtenerDeterminado()))
-                    aux.insertar(df); /* si no lo es, la reinsertamos */
-            }
-            
-            minimal.eliminarTodo();
-            minimal.insertar(aux);
-        }
-        return minimal;
+        return new CalculadorRecubrimientoMinimal(this).calcular();
     }
     
     @Override
@@ -338,12 +301,12 @@ public class DependenciasFuncionales extends Conjunto<DependenciaFuncional>{
      */
     public static DependenciasFuncionales fromString(String str) throws IllegalArgumentException
     {
-        if(str.replaceAll(" ", "").isEmpty())
-            return new DependenciasFuncionales();
-        String[] tokens = str.split(";");
-        DependenciasFuncionales dfs = new DependenciasFuncionales();
-        for(String token : tokens)
-            dfs.insertar(DependenciaFuncional.fromString(token));
-        return dfs;
+        return new AnalizadorSintactico(str).analizarDependencias();
     }
+    
+    private final CacheCierres cacheCierres = new CacheCierres(CacheCierres.CAPACIDAD_POR_DEFECTO);
+    private IndiceCierre indiceCierre; /* índice para el cálculo de cierres, o null si aún no se ha
+    construido */
+    private ProyeccionDependencias proyeccion; /* calcula y memoriza las proyecciones de este conjunto,
+    o null si aún no se ha solicitado ninguna */
 }
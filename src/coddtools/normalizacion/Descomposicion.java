@@ -25,7 +25,9 @@
 package coddtools.normalizacion;
 
 import coddtools.util.Conjunto;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Las instancias de esta clase contienen información sobre la descomposición de una
@@ -82,6 +84,48 @@ public class Descomposicion {
         hijas.insertar(new Relacion(nombres.next(), attrsB, dfsB));
         
     }
+    
+    /**
+     * Construye una descomposición en varias relaciones hijas. La relación hija i-ésima tendrá los
+     * atributos atributos.get(i) y las dependencias funcionales dfs.get(i). Los nombres de estas
+     * relaciones serán obtenidos a través del solucionador de nombres (SolucionadorNombres)
+     * @param padre
+     * @param atributos
+     * @param dfs 
+     * @note El número de relaciones hijas debe ser mayor o igual a dos.
+     */
+    public Descomposicion(final Relacion padre, final List<Descriptor> atributos, final List<DependenciasFuncionales> dfs)
+    {
+        assert (atributos.size() >= 2) && (atributos.size() == dfs.size());
+        Iterator<String> nombres = SolucionadorNombres.descomponerNombre(padre.obtenerNombre(), atributos.size()).iterator();
+        this.padre = padre;
+        hijas = new Conjunto<Relacion>();
+        for(int i = 0; i != atributos.size(); ++i)
+            hijas.insertar(new Relacion(nombres.next(), atributos.get(i), dfs.get(i)));
+    }
+    
+    /**
+     * Construye una descomposición en varias relaciones hijas, con los atributos indicados. Las
+     * dependencias funcionales de cada relación hija son la proyección del recubrimiento minimal de la
+     * relación padre sobre sus atributos, luego se conservan también las dependencias implícitas.
+     * @param padre
+     * @param atributos 
+     * @note El número de relaciones hijas debe ser mayor o igual a dos.
+     * @throws ProyeccionIncompleta si no se puede calcular la proyección sobre alguna relación hija.
+     */
+    public Descomposicion(final Relacion padre, final List<Descriptor> atributos) throws ProyeccionIncompleta
+    {
+        this(padre, atributos, proyectar(padre, atributos));
+    }
+    
+    private static List<DependenciasFuncionales> proyectar(final Relacion padre, final List<Descriptor> atributos)
+    {
+        List<DependenciasFuncionales> dfs = new ArrayList<DependenciasFuncionales>();
+        for(Descriptor attrs : atributos)
+            dfs.add(padre.obtenerRecubrimientoMinimal().obtenerProyeccion(attrs));
+        return dfs;
+    }
+    
     /* Consultores */
     /**
      * 
@@ -108,50 +152,31 @@ public class Descomposicion {
      */
     public final boolean esLegal()
     {
-        /* si F1, F2, ..., FN son el conj. de DFs de las relaciones hijas, la desc. será legal
-        si F1 u F2 u .. u Fn = F
-        */
-        DependenciasFuncionales aux = new DependenciasFuncionales();
-        Iterator<Relacion> it = obtenerRelacionesHijas().iterator();
-        while(it.hasNext())
-            aux.insertar(it.next().obtenerDependenciasFuncionales());
-        return aux.esIgual(obtenerRelacionPadre().obtenerRecubrimientoMinimal());
+        /* la desc. será legal si las proyecciones de F sobre R1, R2, ..., Rn cubren a F. Se comprueba
+        con cierres restringidos a cada relación hija, sin calcular las proyecciones */
+        return new PreservacionDependencias(obtenerRelacionPadre().obtenerAtributos(),
+                obtenerRelacionPadre().obtenerRecubrimientoMinimal(), obtenerEsquemas())
+                .conserva(obtenerRelacionPadre().obtenerRecubrimientoMinimal());
     }
     
     /**
      * Comprueba si la descomposición es de reunión sin pérdida, es decir, sin pérdida de información.
-     * (sin generación de tuplas espurias)
+     * (sin generación de tuplas espurias). Es válido para cualquier número de relaciones hijas.
+     * @see TablaReunionSinPerdida
      */
     public final boolean esReunionSinPerdida()
     {
-        /*
-        Si R1,R2,...,Rn son los conj. de los atributos de las relaciones hijas, será de reunión sin pérdida,
-        si en F+ existe una de las siguientes DFs: R1^R2^..^Rn -> R1,  R1^R2^...^Rn -> R2, ... R1^R2^...^Rn -> Rn
-        */
-        
-        /* Obtenemos R1^R2^R3^...^RN */
-        Descriptor aux = new Descriptor();
-        Descriptor interseccion = new Descriptor();
-        Iterator<Relacion> it = obtenerRelacionesHijas().iterator();
-        interseccion.insertar(it.next().obtenerAtributos());
-        while(it.hasNext())
-        {
-            aux.eliminarTodo();
-            aux.insertar(interseccion.interseccion(it.next().obtenerAtributos()));
-            interseccion.eliminarTodo();
-            interseccion.insertar(aux);
-        }
-        
-        /* Calcular F+ */
-        CierreDependenciasFuncionales cierre = obtenerRelacionPadre().obtenerRecubrimientoMinimal().obtenerCierre();
-        
-        
-        /* buscar una DF que satisfaga la condición para que la descomp. sea sin pérdida */
-        it = obtenerRelacionesHijas().iterator();
-        Relacion hija = it.next();
-        while(it.hasNext() && !cierre.contiene(new DependenciaFuncional(interseccion, hija.obtenerAtributos())))
-            hija = it.next();
-        return cierre.contiene(new DependenciaFuncional(interseccion, hija.obtenerAtributos()));
+        return new TablaReunionSinPerdida(obtenerRelacionPadre().obtenerAtributos(),
+                obtenerRelacionPadre().obtenerRecubrimientoMinimal(), obtenerEsquemas()).esSinPerdida();
+    }
+    
+    /* atributos de cada relación hija */
+    private List<Descriptor> obtenerEsquemas()
+    {
+        List<Descriptor> esquemas = new ArrayList<Descriptor>();
+        for(Relacion hija : obtenerRelacionesHijas())
+            esquemas.add(hija.obtenerAtributos());
+        return esquemas;
     }
     
     @Override
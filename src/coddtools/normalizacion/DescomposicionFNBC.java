@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Descompone una relación en FNBC en tiempo polinómico (algoritmo de Tsou y Fischer), sin necesidad
+ * de calcular la proyección de las dependencias funcionales sobre cada subrelación.
+ * Las violaciones de FNBC se detectan únicamente mediante cierres: si un conjunto de atributos Y
+ * contiene dos atributos A y B tales que A pertenece al cierre de Y - {A, B}, entonces Y - {B} no
+ * está en FNBC respecto a Y, o bien Y - {B} sigue conteniendo una violación. Si no existe ningún par
+ * así, Y está en FNBC.
+ * Partiendo de Z = todos los atributos, se eliminan atributos B de Y = Z mientras exista un par
+ * (A, B) de este tipo; al terminar, Y está en FNBC y además Y - {A} -> A. Se separa Y como relación
+ * hija, se elimina A de Z, y se repite el proceso hasta que Z está en FNBC. Cada separación es de
+ * reunión sin pérdida, luego también lo es la descomposición completa.
+ * @author victor
+ */
+public class DescomposicionFNBC {
+    public DescomposicionFNBC(final Relacion r)
+    {
+        this.r = r;
+        universo = new UniversoAtributos(r.obtenerAtributos());
+        indice = new IndiceCierre(universo, r.obtenerRecubrimientoMinimal());
+    }
+    
+    /**
+     * @return Devuelve la descomposición de la relación en relaciones en FNBC, o null si la relación
+     * ya está en FNBC.
+     */
+    public Descomposicion descomponer()
+    {
+        List<DescriptorCompacto> partes = new ArrayList<DescriptorCompacto>();
+        DescriptorCompacto z = universo.obtenerTodos();
+        int[] par = new int[2];
+        while(buscarPar(z, par))
+        {
+            DescriptorCompacto y = new DescriptorCompacto(z);
+            int determinado;
+            do
+            {
+                determinado = par[0];
+                y.eliminar(par[1]);
+            }
+            while(buscarPar(y, par));
+            /* y está en FNBC e (y - determinado) -> determinado */
+            anadirParte(partes, y);
+            z.eliminar(determinado);
+        }
+        if(partes.isEmpty())
+            return null;
+        anadirParte(partes, z);
+        
+        List<Descriptor> atributos = new ArrayList<Descriptor>();
+        for(DescriptorCompacto parte : partes)
+            atributos.add(parte.aDescriptor());
+        return new Descomposicion(r, atributos);
+    }
+    
+    /**
+     * Busca dos atributos A y B del descriptor tales que A está en el cierre del descriptor sin A ni B.
+     * @param par Si se encuentran, en par[0] se guarda A y en par[1] se guarda B.
+     * @return Devuelve un valor booleano indicando si existen tales atributos.
+     */
+    private boolean buscarPar(final DescriptorCompacto y, final int[] par)
+    {
+        DescriptorCompacto resto = new DescriptorCompacto(y);
+        for(int a = y.siguiente(0); a >= 0; a = y.siguiente(a + 1))
+        {
+            resto.eliminar(a);
+            /* si A no está en el cierre de Y - {A}, tampoco lo estará en el de ningún subconjunto */
+            if(indice.obtenerCierre(resto).contiene(a))
+            {
+                for(int b = y.siguiente(0); b >= 0; b = y.siguiente(b + 1))
+                {
+                    if(b == a)
+                        continue;
+                    resto.eliminar(b);
+                    boolean encontrado = indice.obtenerCierre(resto).contiene(a);
+                    resto.insertar(b);
+                    if(encontrado)
+                    {
+                        par[0] = a;
+                        par[1] = b;
+                        return true;
+                    }
+                }
+            }
+            resto.insertar(a);
+        }
+        return false;
+    }
+    
+    /* añade una parte, salvo que esté contenida en alguna de las anteriores; descarta las anteriores
+    que estén contenidas en ella */
+    private static void anadirParte(final List<DescriptorCompacto> partes, final DescriptorCompacto parte)
+    {
+        for(DescriptorCompacto otra : partes)
+            if(otra.contiene(parte))
+                return;
+        for(int i = partes.size() - 1; i >= 0; --i)
+            if(parte.contiene(partes.get(i)))
+                partes.remove(i);
+        partes.add(parte);
+    }
+    
+    private final Relacion r;
+    private final UniversoAtributos universo;
+    private final IndiceCierre indice;
+}
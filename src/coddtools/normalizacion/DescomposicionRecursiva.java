@@ -48,7 +48,55 @@ public class DescomposicionRecursiva {
      */
     public DescomposicionRecursiva(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida) 
     {
-        raiz = new NodoDescomposicionRecursiva(r, fnDeseada, debeSerLegal, debeSerSinPerdida);
+        this(r, fnDeseada, debeSerLegal, debeSerSinPerdida, EstrategiaDescomposicion.BINARIA);
+    }
+    
+    /**
+     * Igual que el constructor anterior, pero indicando la estrategia con la que se descompone cada
+     * relación. e.g. Con EstrategiaDescomposicion.SINTESIS_FN3 las relaciones que no están en 3FN se
+     * descomponen en un solo paso en relaciones en 3FN, en lugar de separar una dependencia funcional
+     * en cada nivel del árbol.
+     * @param r
+     * @param fnDeseada
+     * @param debeSerLegal
+     * @param debeSerSinPerdida
+     * @param estrategia 
+     */
+    public DescomposicionRecursiva(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia) 
+    {
+        raiz = new NodoDescomposicionRecursiva(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia);
+    }
+    
+    /**
+     * Igual que el constructor anterior, pero reutilizando los árboles de descomposición de las
+     * relaciones con el mismo esquema (atributos y recubrimiento minimal) que ya se hayan descompuesto
+     * con la misma tabla, aunque tengan otro nombre. Los nuevos árboles se memorizan en la tabla.
+     * @param r
+     * @param fnDeseada
+     * @param debeSerLegal
+     * @param debeSerSinPerdida
+     * @param estrategia 
+     * @param tabla Es la tabla de árboles memorizados (puede compartirse entre descomposiciones), o
+     * null para no memorizarlos (como el constructor anterior).
+     */
+    public DescomposicionRecursiva(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia, TablaDescomposiciones tabla) 
+    {
+        if(tabla != null)
+            raiz = tabla.obtenerNodo(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia);
+        else
+            raiz = new NodoDescomposicionRecursiva(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia);
+    }
+    
+    /**
+     * Construye una descomposición recursiva cuyo árbol ya ha sido generado.
+     * @param raiz Es el nodo raíz del árbol.
+     * @see ConstructorDescomposicionParalela
+     */
+    DescomposicionRecursiva(NodoDescomposicionRecursiva raiz)
+    {
+        this.raiz = raiz;
     }
     
     /* Consultores */
@@ -61,6 +109,16 @@ public class DescomposicionRecursiva {
         return raiz;
     }
     
+    /**
+     * @return Devuelve un valor booleano indicando si todas las relaciones se pudieron descomponer, o
+     * si por el contrario alguna relación final no se descompuso porque no se pudo calcular la
+     * proyección de sus dependencias (NodoDescomposicionRecursiva.esProyeccionIncompleta).
+     */
+    public boolean esCompleta()
+    {
+        return raiz.esCompleto();
+    }
+    
     /**
      * @return Devuelve un conjunto de relaciones que son el resultado final
      * de la descomposición recursiva. 
@@ -76,5 +134,5 @@ public class DescomposicionRecursiva {
     }
     
     
-    private NodoDescomposicionRecursiva raiz;
+    private final NodoDescomposicionRecursiva raiz;
 }
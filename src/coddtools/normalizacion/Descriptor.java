@@ -25,6 +25,7 @@
 package coddtools.normalizacion;
 
 import coddtools.util.Conjunto;
+import coddtools.util.FabricaAlmacenes;
 import java.util.Iterator;
 
 /**
@@ -34,7 +35,7 @@ import java.util.Iterator;
 public class Descriptor extends Conjunto<Atributo> implements Comparable<Descriptor> {
     public Descriptor()
     {
-        
+        super(FabricaAlmacenes.ARREGLO_ORDENADO); /* los descriptores son pequeños y se recorren en orden */
     }
 
     @Override
@@ -59,6 +60,26 @@ public class Descriptor extends Conjunto<Atributo> implements Comparable<Descrip
         return 0;
     }
     
+    /**
+     * Dos descriptores son iguales si tienen los mismos atributos (de acuerdo con compareTo). Como en
+     * java.util.Set, el código hash cambia al modificar el descriptor, luego no debe modificarse un
+     * descriptor mientras esté guardado en una tabla hash.
+     */
+    @Override
+    public boolean equals(Object otro)
+    {
+        return (otro instanceof Descriptor) && esIgual((Descriptor)otro);
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        int hash = 0;
+        for(Atributo atributo : this)
+            hash += atributo.hashCode();
+        return hash;
+    }
+    
     /**
      * 
      * @return Devuelve un valor booleano indicando si este descriptor solo tiene un único
@@ -81,21 +102,6 @@ public class Descriptor extends Conjunto<Atributo> implements Comparable<Descrip
      */
     public static Descriptor fromString(String str) throws IllegalArgumentException
     {
-        str = str.replaceAll("[ ]+", "");
-        if(str.isEmpty())
-            return new Descriptor(); /* devolver un descriptor vacío si la cadena es vacía */
-        String[] tokens = str.split(",");
-        /* verificar si los atributos tienen un formato válido */
-        for(int i = 0; i != tokens.length; ++i)
-            if(!tokens[i].matches("[A-Z,a-z,0-9,_,,@,$,%]+"))
-                throw new IllegalArgumentException();
-        
-        
-        /* crear el descriptor con los atributos */
-        Descriptor descriptor = new Descriptor();
-        for(int i = 0; i != tokens.length; ++i)
-            descriptor.insertar(new Atributo(tokens[i]));
-       
-        return descriptor;
+        return new AnalizadorSintactico(str).analizarDescriptor();
     }
 }
@@ -0,0 +1,390 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.Arrays;
+
+/**
+ * Representación compacta de un descriptor: un vector de bits sobre un universo de atributos
+ * (UniversoAtributos). El bit i-ésimo indica si el atributo con índice i pertenece al descriptor.
+ * Las operaciones de inclusión, unión, intersección, diferencia e igualdad se realizan palabra a
+ * palabra, en lugar de recorrer árboles de atributos comparando sus nombres.
+ * Solo pueden operarse entre sí descriptores compactos del mismo universo.
+ * @author victor
+ */
+public class DescriptorCompacto implements Comparable<DescriptorCompacto> {
+    /* Constructores */
+    /**
+     * Construye un descriptor compacto vacío.
+     * @param universo Es el universo de atributos sobre el que se define el descriptor.
+     */
+    public DescriptorCompacto(final UniversoAtributos universo)
+    {
+        this.universo = universo;
+        this.palabras = new long[universo.obtenerNumeroPalabras()];
+    }
+    
+    /**
+     * Construye un descriptor compacto con los mismos atributos que otro.
+     */
+    public DescriptorCompacto(final DescriptorCompacto otro)
+    {
+        this.universo = otro.universo;
+        this.palabras = otro.palabras.clone();
+    }
+    
+    /**
+     * Construye un descriptor compacto con los atributos del descriptor indicado.
+     * @throws IllegalArgumentException Si algún atributo del descriptor no pertenece al universo.
+     */
+    public DescriptorCompacto(final UniversoAtributos universo, final Descriptor descriptor) throws IllegalArgumentException
+    {
+        this(universo);
+        for(Atributo atributo : descriptor)
+        {
+            int indice = universo.obtenerIndice(atributo);
+            if(indice < 0)
+                throw new IllegalArgumentException();
+            insertar(indice);
+        }
+    }
+    
+    /* Operaciones básicas */
+    /**
+     * Inserta el atributo con el índice indicado.
+     * @return Devuelve un valor booleano indicando si el atributo no estaba ya en el descriptor.
+     */
+    public final boolean insertar(int indice)
+    {
+        long mascara = 1L << indice;
+        int palabra = indice >>> 6;
+        boolean nuevo = (palabras[palabra] & mascara) == 0;
+        palabras[palabra] |= mascara;
+        return nuevo;
+    }
+    
+    /**
+     * Elimina el atributo con el índice indicado.
+     * @return Devuelve un valor booleano indicando si el atributo estaba en el descriptor.
+     */
+    public final boolean eliminar(int indice)
+    {
+        long mascara = 1L << indice;
+        int palabra = indice >>> 6;
+        boolean estaba = (palabras[palabra] & mascara) != 0;
+        palabras[palabra] &= ~mascara;
+        return estaba;
+    }
+    
+    /**
+     * Inserta en este descriptor todos los atributos de otro (unión sobre este descriptor).
+     * @return Devuelve un valor booleano indicando si se insertó algún atributo.
+     */
+    public final boolean insertar(final DescriptorCompacto otro)
+    {
+        assert universo == otro.universo;
+        long cambios = 0;
+        for(int i = 0; i != palabras.length; ++i)
+        {
+            cambios |= otro.palabras[i] & ~palabras[i];
+            palabras[i] |= otro.palabras[i];
+        }
+        return cambios != 0;
+    }
+    
+    /**
+     * Elimina de este descriptor todos los atributos de otro (diferencia sobre este descriptor).
+     * @return Devuelve un valor booleano indicando si se eliminó algún atributo.
+     */
+    public final boolean eliminar(final DescriptorCompacto otro)
+    {
+        assert universo == otro.universo;
+        long cambios = 0;
+        for(int i = 0; i != palabras.length; ++i)
+        {
+            cambios |= otro.palabras[i] & palabras[i];
+            palabras[i] &= ~otro.palabras[i];
+        }
+        return cambios != 0;
+    }
+    
+    /**
+     * Elimina de este descriptor los atributos que no están en otro (intersección sobre
+     * este descriptor).
+     * @return Devuelve un valor booleano indicando si se eliminó algún atributo.
+     */
+    public final boolean retener(final DescriptorCompacto otro)
+    {
+        assert universo == otro.universo;
+        long cambios = 0;
+        for(int i = 0; i != palabras.length; ++i)
+        {
+            cambios |= palabras[i] & ~otro.palabras[i];
+            palabras[i] &= otro.palabras[i];
+        }
+        return cambios != 0;
+    }
+    
+    /**
+     * Elimina todos los atributos de este descriptor.
+     */
+    public final void eliminarTodo()
+    {
+        Arrays.fill(palabras, 0L);
+    }
+    
+    /* Operadores contiene/ es contenido */
+    /**
+     * @return Devuelve un valor booleano indicando si el atributo con el índice indicado
+     * está en este descriptor.
+     */
+    public final boolean contiene(int indice)
+    {
+        return (palabras[indice >>> 6] & (1L << indice)) != 0;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si el atributo está en este descriptor.
+     */
+    public final boolean contiene(final Atributo atributo)
+    {
+        int indice = universo.obtenerIndice(atributo);
+        return (indice >= 0) && contiene(indice);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si otro descriptor es subconjunto de este.
+     */
+    public final boolean contiene(final DescriptorCompacto otro)
+    {
+        assert universo == otro.universo;
+        for(int i = 0; i != palabras.length; ++i)
+            if((otro.palabras[i] & ~palabras[i]) != 0)
+                return false;
+        return true;
+    }
+    
+    /**
+     * @return Devuelve otro.contiene(this)
+     */
+    public final boolean esContenido(final DescriptorCompacto otro)
+    {
+        return otro.contiene(this);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si este descriptor contiene estríctamente
+     * a otro.
+     */
+    public final boolean contieneEstrictamente(final DescriptorCompacto otro)
+    {
+        return contiene(otro) && !esIgual(otro);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si este descriptor y otro tienen algún
+     * atributo en común.
+     */
+    public final boolean interseca(final DescriptorCompacto otro)
+    {
+        assert universo == otro.universo;
+        for(int i = 0; i != palabras.length; ++i)
+            if((otro.palabras[i] & palabras[i]) != 0)
+                return true;
+        return false;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si ambos descriptores tienen los mismos
+     * atributos.
+     */
+    public final boolean esIgual(final DescriptorCompacto otro)
+    {
+        assert universo == otro.universo;
+        return Arrays.equals(palabras, otro.palabras);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si este descriptor no tiene atributos.
+     */
+    public final boolean esVacio()
+    {
+        for(int i = 0; i != palabras.length; ++i)
+            if(palabras[i] != 0)
+                return false;
+        return true;
+    }
+    
+    /* Operaciones union, diferencia, ... */
+    /**
+     * @return Devuelve un nuevo descriptor con los atributos de este y de otro descriptor.
+     */
+    public final DescriptorCompacto union(final DescriptorCompacto otro)
+    {
+        DescriptorCompacto aux = new DescriptorCompacto(this);
+        aux.insertar(otro);
+        return aux;
+    }
+    
+    /**
+     * @return Devuelve un nuevo descriptor con los atributos que están tanto en este como
+     * en otro descriptor.
+     */
+    public final DescriptorCompacto interseccion(final DescriptorCompacto otro)
+    {
+        DescriptorCompacto aux = new DescriptorCompacto(this);
+        aux.retener(otro);
+        return aux;
+    }
+    
+    /**
+     * @return Devuelve un nuevo descriptor con los atributos de este descriptor que no están
+     * en otro.
+     */
+    public final DescriptorCompacto diferencia(final DescriptorCompacto otro)
+    {
+        DescriptorCompacto aux = new DescriptorCompacto(this);
+        aux.eliminar(otro);
+        return aux;
+    }
+    
+    /* Cardinal y recorrido */
+    /**
+     * @return Devuelve el número de atributos de este descriptor.
+     */
+    public final int obtenerCardinal()
+    {
+        int cardinal = 0;
+        for(int i = 0; i != palabras.length; ++i)
+            cardinal += Long.bitCount(palabras[i]);
+        return cardinal;
+    }
+    
+    /**
+     * Permite recorrer los atributos del descriptor en orden:
+     * for(int i = d.siguiente(0); i >= 0; i = d.siguiente(i + 1)) ...
+     * @return Devuelve el menor índice mayor o igual que desde cuyo atributo está en el descriptor,
+     * o -1 si no hay ninguno.
+     */
+    public final int siguiente(int desde)
+    {
+        int palabra = desde >>> 6;
+        if(palabra >= palabras.length)
+            return -1;
+        long bits = palabras[palabra] & (-1L << desde);
+        while(true)
+        {
+            if(bits != 0)
+                return (palabra << 6) + Long.numberOfTrailingZeros(bits);
+            if(++palabra == palabras.length)
+                return -1;
+            bits = palabras[palabra];
+        }
+    }
+    
+    /**
+     * Permite recorrer los atributos del descriptor en orden inverso:
+     * for(int i = d.anterior(n - 1); i >= 0; i = d.anterior(i - 1)) ...
+     * @return Devuelve el mayor índice menor o igual que desde cuyo atributo está en el descriptor,
+     * o -1 si no hay ninguno.
+     */
+    public final int anterior(int desde)
+    {
+        if(desde < 0)
+            return -1;
+        int palabra = desde >>> 6;
+        long bits = palabras[palabra] & (-1L >>> (63 - (desde & 63)));
+        while(true)
+        {
+            if(bits != 0)
+                return (palabra << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            if(--palabra < 0)
+                return -1;
+            bits = palabras[palabra];
+        }
+    }
+    
+    /**
+     * @return Devuelve el universo de atributos de este descriptor.
+     */
+    public final UniversoAtributos obtenerUniverso()
+    {
+        return universo;
+    }
+    
+    /* Conversión */
+    /**
+     * @return Devuelve un descriptor (no compacto) con los atributos de este descriptor.
+     */
+    public final Descriptor aDescriptor()
+    {
+        Descriptor descriptor = new Descriptor();
+        for(int i = siguiente(0); i >= 0; i = siguiente(i + 1))
+            descriptor.insertar(universo.obtenerAtributo(i));
+        return descriptor;
+    }
+    
+    @Override
+    public boolean equals(Object otro)
+    {
+        if(!(otro instanceof DescriptorCompacto))
+            return false;
+        DescriptorCompacto aux = (DescriptorCompacto)otro;
+        return (universo == aux.universo) && Arrays.equals(palabras, aux.palabras);
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(palabras);
+    }
+    
+    /**
+     * Mismo orden que Descriptor.compareTo: primero por cardinal y luego por atributos.
+     */
+    @Override
+    public int compareTo(DescriptorCompacto otro)
+    {
+        int r;
+        if((r = obtenerCardinal() - otro.obtenerCardinal()) != 0)
+            return r;
+        int i = siguiente(0), j = otro.siguiente(0);
+        while((i >= 0) && (i == j))
+        {
+            i = siguiente(i + 1);
+            j = otro.siguiente(j + 1);
+        }
+        return (i < 0) ? 0 : i - j;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return aDescriptor().toString();
+    }
+    
+    private final UniversoAtributos universo;
+    private final long[] palabras;
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+/**
+ * Es la excepción lanzada al convertir una cadena de caracteres que no tiene un formato válido en una
+ * relación, una dependencia funcional o un descriptor. Indica la posición del primer error encontrado.
+ * @see AnalizadorSintactico
+ * @author victor
+ */
+public class ErrorSintaxis extends IllegalArgumentException {
+    /**
+     * @param mensaje Es la descripción del error.
+     * @param posicion Es la posición (desde 0) del carácter de la cadena en el que se detectó el error.
+     */
+    public ErrorSintaxis(String mensaje, int posicion)
+    {
+        super("posicion " + posicion + ": " + mensaje);
+        this.posicion = posicion;
+    }
+    
+    /**
+     * @return Devuelve la posición (desde 0) del carácter de la cadena en el que se detectó el error.
+     */
+    public int obtenerPosicion()
+    {
+        return posicion;
+    }
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final int posicion;
+}
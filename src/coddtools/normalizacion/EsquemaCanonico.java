@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+/**
+ * Es la forma canónica del esquema de una relación: sus atributos y el recubrimiento minimal de sus
+ * dependencias funcionales, sin tener en cuenta su nombre. Dos relaciones con el mismo esquema
+ * canónico se analizan y se descomponen de la misma forma (salvo por los nombres de las relaciones
+ * obtenidas), luego puede usarse como clave para reutilizar resultados.
+ * Los atributos y las dependencias se representan ordenados, luego la forma canónica no depende del
+ * orden en el que se indicaron.
+ * @author victor
+ */
+public final class EsquemaCanonico {
+    /**
+     * @param r Es la relación cuyo esquema canónico se obtiene.
+     */
+    public EsquemaCanonico(final Relacion r)
+    {
+        forma = "{" + r.obtenerAtributos() + "}, {" + r.obtenerRecubrimientoMinimal() + "}";
+        hash = forma.hashCode();
+    }
+    
+    /**
+     * @return Devuelve la forma canónica como cadena de caracteres.
+     */
+    @Override
+    public String toString()
+    {
+        return forma;
+    }
+    
+    @Override
+    public boolean equals(Object otro)
+    {
+        if(this == otro)
+            return true;
+        if(!(otro instanceof EsquemaCanonico))
+            return false;
+        EsquemaCanonico esquema = (EsquemaCanonico)otro;
+        return (hash == esquema.hash) && forma.equals(esquema.forma);
+    }
+    
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+    
+    private final String forma;
+    private final int hash;
+}
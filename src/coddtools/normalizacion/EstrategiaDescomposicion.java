@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+/**
+ * Representa la forma en la que se descompone una relación en cada paso de una descomposición
+ * recursiva (DescomposicionRecursiva).
+ * @author victor
+ */
+public abstract class EstrategiaDescomposicion {
+    
+    /**
+     * Descompone una relación que no está en la forma normal deseada.
+     * @param r Es la relación a descomponer.
+     * @param fnDeseada Es la forma normal que se quiere alcanzar.
+     * @return Devuelve la descomposición de la relación.
+     */
+    public abstract Descomposicion descomponer(Relacion r, FormaNormal fnDeseada);
+    
+    
+    /* Estrategias */
+    /**
+     * Divide la relación en dos, separando una dependencia funcional que impide alcanzar la
+     * siguiente forma normal. (Es la descomposición de la propia forma normal de la relación)
+     */
+    public static final EstrategiaDescomposicion BINARIA = new EstrategiaDescomposicion()
+        {
+            @Override
+            public Descomposicion descomponer(Relacion r, FormaNormal fnDeseada)
+            {
+                return r.descomponer();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "binaria";
+            }
+        };
+    
+    /**
+     * Si la relación no está en 3FN, la descompone en un solo paso en relaciones en 3FN mediante
+     * síntesis (SintesisFN3). Si ya está en 3FN, se descompone igual que en la estrategia binaria.
+     */
+    public static final EstrategiaDescomposicion SINTESIS_FN3 = new EstrategiaDescomposicion()
+        {
+            @Override
+            public Descomposicion descomponer(Relacion r, FormaNormal fnDeseada)
+            {
+                if(!r.obtenerFormaNormal().contiene(FormaNormal.FN3))
+                {
+                    Descomposicion d = new SintesisFN3(r).descomponer();
+                    if(d != null)
+                        return d;
+                }
+                return r.descomponer();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "sintesis 3FN";
+            }
+        };
+    
+    /**
+     * Si la relación no está en FNBC, la descompone en un solo paso en relaciones en FNBC
+     * (DescomposicionFNBC). La descomposición es siempre de reunión sin pérdida, pero puede no
+     * preservar las dependencias funcionales.
+     */
+    public static final EstrategiaDescomposicion FNBC = new EstrategiaDescomposicion()
+        {
+            @Override
+            public Descomposicion descomponer(Relacion r, FormaNormal fnDeseada)
+            {
+                Descomposicion d = new DescomposicionFNBC(r).descomponer();
+                if(d != null)
+                    return d;
+                return r.descomponer();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "FNBC";
+            }
+        };
+}
@@ -24,7 +24,10 @@
 
 package coddtools.normalizacion;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 
 /**
@@ -108,6 +111,44 @@ public abstract class FormaNormal implements Comparable<FormaNormal> {
     }
     
     
+    /**
+     * Descompone una relación en dos: una con los atributos X u Y', y otra con todos los atributos de
+     * la relación menos Y', siendo X -> Y una de las dependencias funcionales candidatas (la primera
+     * cuya descomposición conserva las dependencias, o la primera si ninguna las conserva), e Y' los
+     * atributos no primos del cierre de X que no están en X (Y está contenido en Y'). Las dependencias
+     * de cada relación hija son la proyección de las de la relación sobre sus atributos.
+     * @param candidatas No debe estar vacía. Sus determinados deben ser atributos no primos.
+     */
+    private static Descomposicion descomponerPorDependencia(Relacion r, List<DependenciaFuncional> candidatas,
+            Descriptor noPrimos)
+    {
+        DependenciasFuncionales dfs = r.obtenerRecubrimientoMinimal();
+        List<Descriptor> esquemas = null;
+        for(DependenciaFuncional df : candidatas)
+        {
+            esquemas = dividir(r, df, noPrimos);
+            if(new PreservacionDependencias(r.obtenerAtributos(), dfs, esquemas).conserva(dfs))
+                break;
+            esquemas = null;
+        }
+        if(esquemas == null)
+            esquemas = dividir(r, candidatas.get(0), noPrimos);
+        return new Descomposicion(r, esquemas.get(0), dfs.obtenerProyeccion(esquemas.get(0)), 
+                esquemas.get(1), dfs.obtenerProyeccion(esquemas.get(1)));
+    }
+    
+    /* atributos X u Y', y atributos de la relación menos Y', siendo X -> Y la dependencia indicada */
+    private static List<Descriptor> dividir(Relacion r, DependenciaFuncional df, Descriptor noPrimos)
+    {
+        Descriptor dependientes = r.obtenerRecubrimientoMinimal().obtenerCierre(df.obtenerDeterminante());
+        dependientes.retener(noPrimos).restar(df.obtenerDeterminante());
+        Descriptor attrsA = new Descriptor();
+        attrsA.unirCon(df.obtenerDeterminante()).unirCon(dependientes);
+        Descriptor attrsB = new Descriptor();
+        attrsB.unirCon(r.obtenerAtributos()).restar(dependientes);
+        return Arrays.asList(attrsA, attrsB);
+    }
+    
     private int nivel; /* a cada forma le asignamos un nivel, cuanto mayor sea, más general es
     (contendrá a más formas normales) */
     
@@ -139,54 +180,19 @@ public abstract class FormaNormal implements Comparable<FormaNormal> {
   
                 DependenciasFuncionales dfs = r.obtenerRecubrimientoMinimal();
                 Descriptor noPrimos = new Descriptor();
-                noPrimos.insertar(r.obtenerAtributos());
-                noPrimos.eliminar(r.obtenerAtributosPrimos());
+                noPrimos.unirCon(r.obtenerAtributos()).restar(r.obtenerAtributosPrimos());
                 
-                Iterator<DependenciaFuncional> it = dfs.iterator();
-                DependenciaFuncional df = it.next();
-                while(!(r.esPrimoEstricto(df.obtenerDeterminante()) && df.obtenerDeterminado().esContenido(noPrimos)))
-                    df = it.next();
+                List<DependenciaFuncional> candidatas = new ArrayList<DependenciaFuncional>();
+                for(DependenciaFuncional df : dfs)
+                    if(r.esPrimoEstricto(df.obtenerDeterminante()) && df.obtenerDeterminado().esContenido(noPrimos))
+                        candidatas.add(df);
                 
-                /* Descomponemos en dos relaciones A y B, una que contenga la df buscada y otra con el resto
-                de dependencias funcionales
-                El atributo no primo que forma parte del determinado de la d.f buscada, se eliminará de la 
-                segunda relación, si no está presente en ninguna otra d.f
+                /* Descomponemos en dos relaciones A y B: A con los atributos X u Y de la df buscada
+                X -> Y, más los atributos no primos que dependen de X, y B con todos los atributos de la
+                relación menos los atributos no primos de A. B conserva las claves, luego la reunión es
+                sin pérdida.
                 */
-                
-                /* Dependencias funcionales de la relación B */
-                DependenciasFuncionales dfsB = new DependenciasFuncionales();
-                dfsB.insertar(dfs);
-                dfsB.eliminar(df);
-                
-                /* Dependencias funcionales de la relación A */
-                DependenciasFuncionales dfsA = new DependenciasFuncionales();
-                dfsA.insertar(df);
-                
-                /* Atributos de la relación A */
-                Descriptor attrsA = new Descriptor();
-                attrsA.insertar(df.obtenerDeterminante().union(df.obtenerDeterminado()));
-
-                /* Atributos de la relación B */
-                Descriptor attrsB = new Descriptor();
-                attrsB.insertar(r.obtenerAtributos());
-                
-                /* El atributo que forma parte del determinado de la dependencia funcional anteriormente
-                buscada está presente en alguna dependencia funcional de la relación B ? */
-               
-                it = dfsB.iterator();
-                if(it.hasNext())
-                {
-                    DependenciaFuncional dfB = it.next();
-                    while(it.hasNext() && !(dfB.obtenerDeterminante().contiene(df.obtenerDeterminado()) ||  
-                            dfB.obtenerDeterminado().contiene(df.obtenerDeterminado())))
-                        dfB = it.next();
-
-                    if(!(dfB.obtenerDeterminante().contiene(df.obtenerDeterminado()) ||  
-                            dfB.obtenerDeterminado().contiene(df.obtenerDeterminado())))
-                        attrsB.eliminar(df.obtenerDeterminado());
-                }
-                
-                return new Descomposicion(r, attrsA, dfsA, attrsB, dfsB);
+                return descomponerPorDependencia(r, candidatas, noPrimos);
             }
             
             @Override
@@ -205,8 +211,7 @@ public abstract class FormaNormal implements Comparable<FormaNormal> {
                 if(dfs.esVacio())
                     return true;
                 Descriptor noPrimos = new Descriptor();
-                noPrimos.insertar(r.obtenerAtributos());
-                noPrimos.eliminar(r.obtenerAtributosPrimos());
+                noPrimos.unirCon(r.obtenerAtributos()).restar(r.obtenerAtributosPrimos());
                 
                 /* buscamos una dependencia funcional en el recubrimiento minimal tal que
                 el determinante sea un subconjunto estricto de una clave minimal y el determinado
@@ -227,33 +232,20 @@ public abstract class FormaNormal implements Comparable<FormaNormal> {
                 */
                 DependenciasFuncionales dfs = r.obtenerRecubrimientoMinimal();
                 Descriptor primos = r.obtenerAtributosPrimos();
+                Descriptor noPrimos = new Descriptor();
+                noPrimos.unirCon(r.obtenerAtributos()).restar(primos);
                 
-                Iterator<DependenciaFuncional> it = dfs.iterator();
-                DependenciaFuncional df = it.next();
-                while(r.esSuperClave(df.obtenerDeterminante()) || df.obtenerDeterminado().esContenido(primos))
-                    df = it.next();
+                List<DependenciaFuncional> candidatas = new ArrayList<DependenciaFuncional>();
+                for(DependenciaFuncional df : dfs)
+                    if(!r.esSuperClave(df.obtenerDeterminante()) && !df.obtenerDeterminado().esContenido(primos))
+                        candidatas.add(df);
                 
-                /* Descomponemos la relación en dos, una con la dependencia funcional que incumple
-                3FN, y otra con el resto de dfs.
+                /* Descomponemos la relación en dos: una con los atributos X u Y de la dependencia
+                funcional X -> Y que incumple 3FN, más los atributos no primos que dependen de X, y otra
+                con todos los atributos de la relación menos los no primos de la primera (la otra relación
+                conserva las claves, luego la reunión es sin pérdida).
                 */
-                DependenciasFuncionales dfsA = new DependenciasFuncionales();
-                dfsA.insertar(df);
-                
-                DependenciasFuncionales dfsB = new DependenciasFuncionales();
-                dfsB.insertar(dfs);
-                dfsB.eliminar(dfsA);
-                
-                Descriptor attrsA = new Descriptor();
-                attrsA.insertar(df.obtenerDeterminante().union(df.obtenerDeterminado()));
-                
-                /* Que atributos tendrá la otra relación: Todos los que aparezcan o bién en el
-                determinante o en el determinado de alguna dependencia funcional en su conjunto de
-                dfs. */
-                Descriptor attrsB = new Descriptor();
-                for(DependenciaFuncional dfB : dfsB)
-                    attrsB.insertar(dfB.obtenerDeterminante().union(dfB.obtenerDeterminado()));
-                
-                return new Descomposicion(r, attrsA, dfsA, attrsB, dfsB);
+                return descomponerPorDependencia(r, candidatas, noPrimos);
             }
             
             @Override
@@ -302,21 +294,18 @@ public abstract class FormaNormal implements Comparable<FormaNormal> {
                 en dos relaciones: Una con los atributos X u Y, y con la DF X -> Y,
                 y otra con todos los atributos de la relación menos Y. (pueden perderse dfs)
                 */
-                DependenciasFuncionales dfsA = new DependenciasFuncionales();
-                dfsA.insertar(df);
-                
                 Descriptor attrsA = new Descriptor();
-                attrsA.insertar(df.obtenerDeterminante().union(df.obtenerDeterminado()));
+                attrsA.unirCon(df.obtenerDeterminante()).unirCon(df.obtenerDeterminado());
                 
                 Descriptor attrsB = new Descriptor();
                 attrsB.insertar(r.obtenerAtributos());
                 attrsB.eliminar(df.obtenerDeterminado());
                 
-                DependenciasFuncionales dfsB = new DependenciasFuncionales();
-                
-                for(DependenciaFuncional df2 : dfs)
-                    if(df2.obtenerDeterminante().esContenido(attrsB) && df2.obtenerDeterminado().esContenido(attrsB))
-                        dfsB.insertar(df2);
+                /* las dependencias de cada relación son la proyección de las dependencias de la
+                relación original sobre sus atributos (no solo las del recubrimiento que están
+                compuestas por ellos) */
+                DependenciasFuncionales dfsA = dfs.obtenerProyeccion(attrsA);
+                DependenciasFuncionales dfsB = dfs.obtenerProyeccion(attrsB);
                 
                 return new Descomposicion(r, attrsA, dfsA, attrsB, dfsB);
             }
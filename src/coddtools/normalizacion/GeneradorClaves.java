@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import coddtools.util.Conjunto;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Genera las claves mínimas de una relación mediante el algoritmo de Lucchesi y Osborn.
+ * Se parte de una clave mínima, obtenida reduciendo el conjunto de todos los atributos (u otra
+ * superclave indicada). Después, por cada clave mínima K ya encontrada y cada dependencia X -> Y, el
+ * descriptor X u (K - Y) es superclave; si no contiene a ninguna de las claves ya encontradas, al
+ * reducirlo se obtiene una nueva clave mínima. El coste es polinómico en el número de atributos, el
+ * número de dependencias y el número de claves mínimas.
+ * Las claves se generan bajo demanda: los iteradores devuelven las claves a medida que se descubren,
+ * y las claves ya descubiertas se conservan para los siguientes iteradores. Así, quien solo necesita
+ * una clave que cumpla cierta condición puede dejar de iterar en cuanto la encuentra, sin pagar el
+ * coste de generar todas.
+ * @author victor
+ */
+public class GeneradorClaves implements Iterable<Descriptor> {
+    /**
+     * @param atributos Son los atributos de la relación.
+     * @param dfs Es el conjunto de dependencias funcionales de la relación (sus atributos deben ser
+     * atributos de la relación).
+     */
+    public GeneradorClaves(final Descriptor atributos, final DependenciasFuncionales dfs)
+    {
+        this(atributos, dfs, atributos);
+    }
+    
+    /**
+     * Igual que el constructor anterior, pero la primera clave se obtiene a partir de un descriptor
+     * indicado, en vez de a partir de todos los atributos. Si el descriptor es una clave (o casi) de la
+     * relación, por ejemplo, una clave de la misma relación antes de modificar sus dependencias, la
+     * primera clave se obtiene con menos cálculos de cierres.
+     * @param semilla Es un descriptor cualquiera de atributos de la relación. Si no es superclave, se le
+     * añaden los atributos que no están en su cierre.
+     */
+    public GeneradorClaves(final Descriptor atributos, final DependenciasFuncionales dfs, final Descriptor semilla)
+    {
+        universo = new UniversoAtributos(atributos);
+        indice = new IndiceCierre(universo, dfs);
+        todos = universo.obtenerTodos();
+        
+        determinantes = new DescriptorCompacto[dfs.obtenerCardinal()];
+        determinados = new DescriptorCompacto[dfs.obtenerCardinal()];
+        int i = 0;
+        for(DependenciaFuncional df : dfs)
+        {
+            determinantes[i] = universo.compactar(df.obtenerDeterminante());
+            determinados[i] = universo.compactar(df.obtenerDeterminado());
+            ++i;
+        }
+        
+        /* completamos la semilla para que sea superclave */
+        this.semilla = compactar(semilla);
+        this.semilla.insertar(todos.diferencia(indice.obtenerCierre(this.semilla)));
+        
+        claves = new ArrayList<DescriptorCompacto>();
+        descriptores = new ArrayList<Descriptor>();
+        claveActual = 0;
+        dfActual = 0;
+    }
+    
+    /**
+     * @return Devuelve un iterador sobre las claves mínimas de la relación. Las claves se van
+     * generando a medida que se avanza en el iterador.
+     */
+    @Override
+    public Iterator<Descriptor> iterator()
+    {
+        return new Iterator<Descriptor>() {
+            @Override
+            public boolean hasNext()
+            {
+                return obtenerClave(siguiente) != null;
+            }
+
+            @Override
+            public Descriptor next()
+            {
+                Descriptor clave = obtenerClave(siguiente);
+                if(clave == null)
+                    throw new NoSuchElementException();
+                ++siguiente;
+                return clave;
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+            
+            private int siguiente = 0; /* posición de la siguiente clave */
+        };
+    }
+    
+    /**
+     * @return Devuelve el conjunto de todas las claves mínimas de la relación.
+     */
+    public Conjunto<Descriptor> generar()
+    {
+        Conjunto<Descriptor> clavesMinimas = new Conjunto<Descriptor>();
+        for(Descriptor clave : this)
+            clavesMinimas.insertar(clave);
+        return clavesMinimas;
+    }
+    
+    /**
+     * @return Devuelve la clave mínima i-ésima en orden de descubrimiento, generándola si aún no
+     * se ha descubierto, o null si la relación tiene menos de i + 1 claves mínimas.
+     */
+    private synchronized Descriptor obtenerClave(int i)
+    {
+        while((descriptores.size() <= i) && descubrirClave())
+            ;
+        return (i < descriptores.size()) ? descriptores.get(i) : null;
+    }
+    
+    /**
+     * Avanza el algoritmo hasta descubrir una nueva clave mínima.
+     * @return Devuelve un valor booleano indicando si se descubrió una nueva clave, o por el
+     * contrario, ya se habían descubierto todas.
+     */
+    private boolean descubrirClave()
+    {
+        if(claves.isEmpty())
+            return anadirClave(reducir(new DescriptorCompacto(semilla)));
+        
+        while(claveActual < claves.size())
+        {
+            DescriptorCompacto clave = claves.get(claveActual);
+            while(dfActual < determinantes.length)
+            {
+                /* X u (K - Y) es superclave, porque su cierre contiene a K */
+                DescriptorCompacto superclave = clave.diferencia(determinados[dfActual]);
+                superclave.insertar(determinantes[dfActual]);
+                ++dfActual;
+                if(!contieneAlguna(superclave, claves))
+                    return anadirClave(reducir(superclave));
+            }
+            ++claveActual;
+            dfActual = 0;
+        }
+        return false;
+    }
+    
+    private boolean anadirClave(final DescriptorCompacto clave)
+    {
+        claves.add(clave);
+        descriptores.add(clave.aDescriptor());
+        return true;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si el descriptor es superclave de la relación.
+     * Los atributos del descriptor que no son atributos de la relación no se tienen en cuenta.
+     */
+    public boolean esSuperClave(final Descriptor descriptor)
+    {
+        return esSuperClave(compactar(descriptor));
+    }
+    
+    /**
+     * @return Devuelve el universo formado por los atributos de la relación.
+     */
+    UniversoAtributos obtenerUniverso()
+    {
+        return universo;
+    }
+    
+    /**
+     * @return Devuelve la representación compacta de los atributos del descriptor que son atributos
+     * de la relación (el resto se ignoran).
+     */
+    DescriptorCompacto compactar(final Descriptor descriptor)
+    {
+        DescriptorCompacto compacto = new DescriptorCompacto(universo);
+        for(Atributo atributo : descriptor)
+        {
+            int i = universo.obtenerIndice(atributo);
+            if(i >= 0)
+                compacto.insertar(i);
+        }
+        return compacto;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si el descriptor es superclave de la relación.
+     */
+    boolean esSuperClave(final DescriptorCompacto descriptor)
+    {
+        return indice.obtenerCierre(descriptor).contiene(todos);
+    }
+    
+    /**
+     * Reduce una superclave a una clave mínima contenida en ella, eliminando uno a uno los atributos
+     * que no son necesarios para seguir siendo superclave.
+     * @param superclave Es una superclave de la relación. Se modifica para obtener la clave.
+     * @return Devuelve la clave mínima (el mismo descriptor indicado como parámetro).
+     */
+    DescriptorCompacto reducir(final DescriptorCompacto superclave)
+    {
+        return reducir(superclave, -1);
+    }
+    
+    /**
+     * Igual que reducir(DescriptorCompacto), pero sin eliminar nunca el atributo indicado. El
+     * resultado es una superclave que contiene a dicho atributo y de la que no puede eliminarse ningún
+     * otro atributo sin dejar de ser superclave.
+     * @param conservado Es el índice del atributo que no debe eliminarse, o -1 para ninguno.
+     */
+    DescriptorCompacto reducir(final DescriptorCompacto superclave, int conservado)
+    {
+        for(int i = superclave.siguiente(0); i >= 0; i = superclave.siguiente(i + 1))
+        {
+            if(i == conservado)
+                continue;
+            superclave.eliminar(i);
+            if(!esSuperClave(superclave))
+                superclave.insertar(i);
+        }
+        return superclave;
+    }
+    
+    private static boolean contieneAlguna(final DescriptorCompacto descriptor, final List<DescriptorCompacto> claves)
+    {
+        for(DescriptorCompacto clave : claves)
+            if(descriptor.contiene(clave))
+                return true;
+        return false;
+    }
+    
+    private final UniversoAtributos universo;
+    private final IndiceCierre indice;
+    private final DescriptorCompacto todos; /* todos los atributos de la relación */
+    private final DescriptorCompacto[] determinantes, determinados; /* dependencias funcionales */
+    private final DescriptorCompacto semilla; /* superclave de la que se obtiene la primera clave */
+    
+    /* estado del algoritmo */
+    private final List<DescriptorCompacto> claves; /* claves descubiertas, en orden de descubrimiento */
+    private final List<Descriptor> descriptores; /* las mismas claves como descriptores */
+    private int claveActual, dfActual; /* siguiente par (clave, df) a combinar */
+}
@@ -0,0 +1,342 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.Arrays;
+
+/**
+ * Permite calcular cierres de descriptores bajo un conjunto de dependencias funcionales en
+ * tiempo lineal respecto al tamaño del conjunto de dependencias (algoritmo LinClosure de
+ * Beeri y Bernstein).
+ * El índice se construye una única vez a partir del conjunto de dependencias: para cada atributo
+ * se guardan las dependencias en cuyo determinante aparece, y para cada dependencia el número de
+ * atributos de su determinante. Al calcular un cierre, cada vez que un atributo entra en el cierre
+ * se decrementa el contador de las dependencias que lo tienen en su determinante; cuando el contador
+ * de una dependencia llega a cero, su determinado se añade al cierre.
+ * Un mismo índice puede usarse para resolver cualquier número de consultas sobre el mismo conjunto de
+ * dependencias. El índice no se modifica al calcular cierres, luego puede consultarse desde varios
+ * hilos a la vez.
+ * Al eliminar una dependencia del conjunto, puede obtenerse el índice del conjunto resultante a partir
+ * del de este con desactivar(), que comparte con este índice todas sus listas y solo marca la
+ * dependencia como inactiva, en vez de construir el índice de nuevo.
+ * @author victor
+ */
+public class IndiceCierre {
+    /* Constructores */
+    /**
+     * Construye el índice de un conjunto de dependencias funcionales. El universo de atributos
+     * será el formado por los atributos que aparecen en las dependencias.
+     */
+    public IndiceCierre(final DependenciasFuncionales dfs)
+    {
+        this(new UniversoAtributos(obtenerAtributos(dfs)), dfs);
+    }
+    
+    /**
+     * Construye el índice de un conjunto de dependencias funcionales sobre un universo de atributos.
+     * @param universo Es un universo que debe contener todos los atributos de las dependencias.
+     * @param dfs Es el conjunto de dependencias funcionales.
+     */
+    public IndiceCierre(final UniversoAtributos universo, final DependenciasFuncionales dfs)
+    {
+        this(universo, obtenerIndices(universo, dfs, true), obtenerIndices(universo, dfs, false));
+    }
+    
+    /**
+     * Construye el índice de un conjunto de dependencias funcionales expresadas en forma compacta:
+     * la dependencia i-ésima es determinantes[i] -> determinados[i].
+     */
+    IndiceCierre(final UniversoAtributos universo, final DescriptorCompacto[] determinantes, final DescriptorCompacto[] determinados)
+    {
+        this(universo, obtenerIndices(determinantes), obtenerIndices(determinados));
+    }
+    
+    private IndiceCierre(final UniversoAtributos universo, final int[][] determinantes, final int[][] determinados)
+    {
+        this.universo = universo;
+        this.determinantes = determinantes;
+        this.determinados = determinados;
+        activas = null;
+        
+        /* contamos en cuántos determinantes aparece cada atributo */
+        int[] apariciones = new int[universo.obtenerTamano()];
+        for(int[] determinante : determinantes)
+            for(int atributo : determinante)
+                apariciones[atributo]++;
+        
+        /* lista de dependencias asociada a cada atributo */
+        dependientes = new int[universo.obtenerTamano()][];
+        for(int atributo = 0; atributo != dependientes.length; ++atributo)
+            dependientes[atributo] = new int[apariciones[atributo]];
+        for(int df = 0; df != determinantes.length; ++df)
+            for(int atributo : determinantes[df])
+                dependientes[atributo][--apariciones[atributo]] = df;
+    }
+    
+    private IndiceCierre(final IndiceCierre indice, final boolean[] activas)
+    {
+        universo = indice.universo;
+        determinantes = indice.determinantes;
+        determinados = indice.determinados;
+        dependientes = indice.dependientes;
+        this.activas = activas;
+    }
+    
+    /**
+     * @return Devuelve el índice del conjunto de dependencias indexado sin la dependencia indicada, que
+     * comparte con este índice todas sus listas (la dependencia simplemente se desactiva). Si la
+     * dependencia no está indexada (o ya estaba desactivada), devuelve este mismo índice.
+     */
+    IndiceCierre desactivar(final DependenciaFuncional df)
+    {
+        int[] determinante = obtenerIndices(universo, df.obtenerDeterminante());
+        int[] determinado = obtenerIndices(universo, df.obtenerDeterminado());
+        if((determinante == null) || (determinado == null))
+            return this;
+        for(int i = 0; i != determinantes.length; ++i)
+        {
+            if(((activas == null) || activas[i]) && Arrays.equals(determinantes[i], determinante) && 
+                    Arrays.equals(determinados[i], determinado))
+            {
+                boolean[] aux;
+                if(activas == null)
+                {
+                    aux = new boolean[determinantes.length];
+                    Arrays.fill(aux, true);
+                }
+                else
+                    aux = activas.clone();
+                aux[i] = false;
+                return new IndiceCierre(this, aux);
+            }
+        }
+        return this;
+    }
+    
+    /* traduce los atributos de un descriptor a índices del universo, en el mismo orden en el que se
+    indexan las dependencias; null si alguno no está en el universo */
+    private static int[] obtenerIndices(final UniversoAtributos universo, final Descriptor descriptor)
+    {
+        int[] indices = new int[descriptor.obtenerCardinal()];
+        int i = 0;
+        for(Atributo atributo : descriptor)
+            if((indices[i++] = universo.obtenerIndice(atributo)) < 0)
+                return null;
+        return indices;
+    }
+    
+    /* traduce los determinantes (o los determinados) de cada dependencia a índices del universo */
+    private static int[][] obtenerIndices(final UniversoAtributos universo, final DependenciasFuncionales dfs, boolean determinantes)
+    {
+        int[][] indices = new int[dfs.obtenerCardinal()][];
+        int i = 0;
+        for(DependenciaFuncional df : dfs)
+        {
+            Descriptor descriptor = determinantes ? df.obtenerDeterminante() : df.obtenerDeterminado();
+            indices[i] = new int[descriptor.obtenerCardinal()];
+            int j = 0;
+            for(Atributo atributo : descriptor)
+            {
+                indices[i][j] = universo.obtenerIndice(atributo);
+                assert indices[i][j] >= 0;
+                ++j;
+            }
+            ++i;
+        }
+        return indices;
+    }
+    
+    private static int[][] obtenerIndices(final DescriptorCompacto[] descriptores)
+    {
+        int[][] indices = new int[descriptores.length][];
+        for(int i = 0; i != descriptores.length; ++i)
+        {
+            indices[i] = new int[descriptores[i].obtenerCardinal()];
+            int j = 0;
+            for(int atributo = descriptores[i].siguiente(0); atributo >= 0; atributo = descriptores[i].siguiente(atributo + 1))
+                indices[i][j++] = atributo;
+        }
+        return indices;
+    }
+    
+    private static Descriptor obtenerAtributos(final DependenciasFuncionales dfs)
+    {
+        Descriptor atributos = new Descriptor();
+        for(DependenciaFuncional df : dfs)
+        {
+            atributos.insertar(df.obtenerDeterminante());
+            atributos.insertar(df.obtenerDeterminado());
+        }
+        return atributos;
+    }
+    
+    /* Consultores */
+    /**
+     * @return Devuelve el universo de atributos sobre el que se construyó este índice.
+     */
+    public UniversoAtributos obtenerUniverso()
+    {
+        return universo;
+    }
+    
+    /**
+     * @return Devuelve el número de dependencias funcionales indexadas (incluidas las desactivadas).
+     */
+    public int obtenerNumeroDependencias()
+    {
+        return determinantes.length;
+    }
+    
+    /* obtención de cierres */
+    /**
+     * @return Devuelve el cierre de un descriptor compacto (del universo de este índice).
+     */
+    public DescriptorCompacto obtenerCierre(final DescriptorCompacto descriptor)
+    {
+        return obtenerCierre(descriptor, null);
+    }
+    
+    /**
+     * Calcula el cierre de un descriptor compacto teniendo en cuenta solo algunas de las
+     * dependencias indexadas.
+     * @param activas Indica, para cada dependencia (en el orden en el que se indexaron), si debe
+     * tenerse en cuenta. Si es null, se tienen en cuenta todas. (Las dependencias desactivadas en este
+     * índice nunca se tienen en cuenta)
+     */
+    DescriptorCompacto obtenerCierre(final DescriptorCompacto descriptor, boolean[] activas)
+    {
+        if(activas == null)
+            activas = this.activas;
+        else if(this.activas != null)
+        {
+            boolean[] aux = new boolean[activas.length];
+            for(int df = 0; df != aux.length; ++df)
+                aux[df] = activas[df] && this.activas[df];
+            activas = aux;
+        }
+
+        assert descriptor.obtenerUniverso() == universo;
+        DescriptorCompacto cierre = new DescriptorCompacto(descriptor);
+        
+        int[] pendientes = new int[determinantes.length]; /* atributos del determinante que aún no
+        están en el cierre */
+        for(int df = 0; df != determinantes.length; ++df)
+            pendientes[df] = determinantes[df].length;
+        
+        /* cola de atributos que han entrado en el cierre y aún no han sido procesados */
+        int[] cola = new int[universo.obtenerTamano()];
+        int cabeza = 0, fin = 0;
+        for(int atributo = cierre.siguiente(0); atributo >= 0; atributo = cierre.siguiente(atributo + 1))
+            cola[fin++] = atributo;
+        
+        while(cabeza != fin)
+        {
+            int atributo = cola[cabeza++];
+            for(int df : dependientes[atributo])
+                if((--pendientes[df] == 0) && ((activas == null) || activas[df]))
+                    /* todo el determinante está en el cierre, añadimos el determinado */
+                    for(int determinado : determinados[df])
+                        if(cierre.insertar(determinado))
+                            cola[fin++] = determinado;
+        }
+        return cierre;
+    }
+    
+    /**
+     * @return Devuelve el cierre de un descriptor. El descriptor puede contener atributos que no
+     * estén en el universo de este índice; estos formarán parte del cierre, pero no determinan a
+     * ningún otro atributo.
+     */
+    public Descriptor obtenerCierre(final Descriptor descriptor)
+    {
+        return obtenerCierre(descriptor, null);
+    }
+    
+    /**
+     * Igual que obtenerCierre(Descriptor), pero consultando primero la cache de cierres indicada.
+     * @param cache Es la cache de cierres, o null si no se quiere usar ninguna.
+     */
+    public Descriptor obtenerCierre(final Descriptor descriptor, final CacheCierres cache)
+    {
+        DescriptorCompacto compacto = new DescriptorCompacto(universo);
+        Descriptor ajenos = null;
+        for(Atributo atributo : descriptor)
+        {
+            int indice = universo.obtenerIndice(atributo);
+            if(indice >= 0)
+                compacto.insertar(indice);
+            else
+            {
+                if(ajenos == null)
+                    ajenos = new Descriptor();
+                ajenos.insertar(atributo);
+            }
+        }
+        Descriptor cierre = ((cache != null) ? cache.obtenerCierre(this, compacto) : obtenerCierre(compacto)).aDescriptor();
+        if(ajenos != null)
+            cierre.insertar(ajenos);
+        return cierre;
+    }
+    
+    /**
+     * Elimina los atributos ajenos del determinante de una dependencia X -> Y: se prueba a quitar
+     * cada atributo de X, uno a uno (empezando por el último), y se descarta si Y sigue estando
+     * contenido en el cierre de lo que queda. Como mucho se calculan tantos cierres como atributos
+     * tiene X. (Si un subconjunto de X determina a Y, también lo determinan todos los descriptores
+     * comprendidos entre él y X, luego basta con quitar los atributos de uno en uno)
+     * @param determinante Es el determinante X. No se modifica.
+     * @param determinado Es el determinado Y. Debe estar contenido en el cierre de X.
+     * @return Devuelve el determinante sin atributos ajenos.
+     */
+    public DescriptorCompacto reducirDeterminante(final DescriptorCompacto determinante, final DescriptorCompacto determinado)
+    {
+        DescriptorCompacto reducido = new DescriptorCompacto(determinante);
+        int cardinal = reducido.obtenerCardinal();
+        for(int atributo = reducido.anterior(universo.obtenerTamano() - 1); (atributo >= 0) && (cardinal > 1); atributo = reducido.anterior(atributo - 1))
+        {
+            reducido.eliminar(atributo);
+            if(obtenerCierre(reducido).contiene(determinado))
+                --cardinal;
+            else
+                reducido.insertar(atributo);
+        }
+        return reducido;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si la dependencia funcional está en el cierre
+     * del conjunto de dependencias indexado.
+     */
+    public boolean implica(final DependenciaFuncional df)
+    {
+        return obtenerCierre(df.obtenerDeterminante()).contiene(df.obtenerDeterminado());
+    }
+    
+    private final UniversoAtributos universo;
+    private final int[][] determinantes; /* atributos del determinante de cada dependencia */
+    private final int[][] determinados; /* atributos del determinado de cada dependencia */
+    private final int[][] dependientes; /* dependencias en cuyo determinante aparece cada atributo */
+    private final boolean[] activas; /* dependencias que se tienen en cuenta, o null si son todas */
+}
@@ -34,24 +34,85 @@ import coddtools.util.Conjunto;
 public class NodoDescomposicionRecursiva implements Comparable<NodoDescomposicionRecursiva> {
     /* Constructores */
     NodoDescomposicionRecursiva(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida) 
+    {
+        this(r, fnDeseada, debeSerLegal, debeSerSinPerdida, EstrategiaDescomposicion.BINARIA);
+    }
+    
+    NodoDescomposicionRecursiva(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia) 
+    {
+        this(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, null);
+    }
+    
+    /**
+     * @param tabla Es la tabla en la que se buscan (y se memorizan) los subárboles de las relaciones
+     * hijas, o null para generarlos siempre.
+     */
+    NodoDescomposicionRecursiva(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia, TablaDescomposiciones tabla) 
     {
         this.r = r;
         hijos = new Conjunto<NodoDescomposicionRecursiva>();
-        if(!r.obtenerFormaNormal().contiene(fnDeseada))
+        Descomposicion d;
+        boolean incompleta = false;
+        try
         {
-            Descomposicion d = r.descomponer();
-            
-            boolean esLegal = d.esLegal();
-            boolean esSinPerdida = d.esReunionSinPerdida();
-            
-            if((!debeSerLegal || esLegal) && (!debeSerSinPerdida || esSinPerdida))
-                for(Relacion hija : d.obtenerRelacionesHijas())
-                    hijos.insertar(new NodoDescomposicionRecursiva(hija, fnDeseada, debeSerLegal, debeSerSinPerdida));
-            
-            this.descomposicion = d;
+            d = descomponer(r, fnDeseada, estrategia);
         }
-        else
-            this.descomposicion = null;
+        catch(ProyeccionIncompleta e)
+        {
+            /* no se conocen las dependencias de alguna relación hija: no se descompone */
+            d = null;
+            incompleta = true;
+        }
+        descomposicion = d;
+        proyeccionIncompleta = incompleta;
+        if(cumpleRequisitos(descomposicion, debeSerLegal, debeSerSinPerdida))
+            for(Relacion hija : descomposicion.obtenerRelacionesHijas())
+                hijos.insertar((tabla == null) ? 
+                        new NodoDescomposicionRecursiva(hija, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia) :
+                        tabla.obtenerNodo(hija, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia));
+    }
+    
+    /**
+     * Construye un nodo cuya descomposición y nodos hijos ya han sido calculados.
+     */
+    NodoDescomposicionRecursiva(Relacion r, Descomposicion descomposicion, Conjunto<NodoDescomposicionRecursiva> hijos)
+    {
+        this(r, descomposicion, hijos, false);
+    }
+    
+    /**
+     * Construye un nodo cuya descomposición y nodos hijos ya han sido calculados.
+     * @param proyeccionIncompleta Indica si la relación no se descompuso porque no se pudo calcular la
+     * proyección de sus dependencias sobre alguna relación hija (véase esProyeccionIncompleta).
+     */
+    NodoDescomposicionRecursiva(Relacion r, Descomposicion descomposicion, Conjunto<NodoDescomposicionRecursiva> hijos,
+            boolean proyeccionIncompleta)
+    {
+        this.r = r;
+        this.descomposicion = descomposicion;
+        this.hijos = hijos;
+        this.proyeccionIncompleta = proyeccionIncompleta;
+    }
+    
+    /**
+     * @return Devuelve la descomposición de la relación, o null si ya está en la forma normal deseada.
+     * @throws ProyeccionIncompleta si no se pueden calcular las dependencias de alguna relación hija.
+     */
+    static Descomposicion descomponer(Relacion r, FormaNormal fnDeseada, EstrategiaDescomposicion estrategia)
+    {
+        return r.obtenerFormaNormal().contiene(fnDeseada) ? null : estrategia.descomponer(r, fnDeseada);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si deben generarse nodos hijos para las relaciones
+     * de la descomposición (existe y satisface los requisitos exigidos).
+     */
+    static boolean cumpleRequisitos(Descomposicion d, boolean debeSerLegal, boolean debeSerSinPerdida)
+    {
+        /* solo se comprueban los requisitos exigidos */
+        return (d != null) && (!debeSerLegal || d.esLegal()) && (!debeSerSinPerdida || d.esReunionSinPerdida());
     }
     
     
@@ -73,12 +134,37 @@ public class NodoDescomposicionRecursiva implements Comparable<NodoDescomposicio
      * Si la descomposición no satisface alguno de los dos requisitos (reúnión sin pérdida, legal),
      * descomposición, será la descomposición que no satisface dichos criterios de división, y por tanto,
      * no se generarán nuevas relaciones hijas. Se cumplirá que: obtenerNodosHijos().esVacio() == true
+     * También es null si no se pudo descomponer la relación (esProyeccionIncompleta() == true).
      */
     public final Descomposicion obtenerDescomposicion() 
     {
         return descomposicion;
     }
     
+    /**
+     * @return Devuelve un valor booleano indicando si la relación no se descompuso porque la proyección
+     * de sus dependencias funcionales sobre alguna relación hija superaba el presupuesto
+     * (ProyeccionIncompleta). En ese caso la relación puede no estar en la forma normal deseada.
+     */
+    public final boolean esProyeccionIncompleta()
+    {
+        return proyeccionIncompleta;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si ningún nodo del subárbol de este nodo tiene una
+     * proyección incompleta.
+     */
+    final boolean esCompleto()
+    {
+        if(proyeccionIncompleta)
+            return false;
+        for(NodoDescomposicionRecursiva hijo : hijos)
+            if(!hijo.esCompleto())
+                return false;
+        return true;
+    }
+    
     /**
      * @return Devuelve los nodos hijos de este, o un conjunto vacío, 
      * si la descomposición de este nodo, no satisface los criterios de descomposición o bién, 
@@ -115,7 +201,8 @@ public class NodoDescomposicionRecursiva implements Comparable<NodoDescomposicio
     }
     
     
-    private Relacion r;
-    private Conjunto<NodoDescomposicionRecursiva> hijos;
-    private Descomposicion descomposicion;
+    private final Relacion r;
+    private final Conjunto<NodoDescomposicionRecursiva> hijos;
+    private final Descomposicion descomposicion;
+    private final boolean proyeccionIncompleta;
 }
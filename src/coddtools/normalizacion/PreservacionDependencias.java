@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.List;
+
+/**
+ * Comprueba si una descomposición de una relación R en R1, R2, ..., Rn conserva las dependencias
+ * funcionales de R, sin calcular el cierre de las dependencias ni sus proyecciones.
+ * Una dependencia X -> Y se conserva si Y está contenido en el conjunto Z obtenido partiendo de Z = X
+ * y repitiendo, para cada relación hija Ri, Z = Z u ((Z n Ri)+ n Ri), hasta que Z no cambie. Los cierres
+ * se calculan con las dependencias de R, luego la prueba requiere un tiempo polinómico.
+ * @author victor
+ */
+public class PreservacionDependencias {
+    /**
+     * @param atributos Son los atributos de la relación descompuesta.
+     * @param dfs Son las dependencias funcionales de la relación descompuesta.
+     * @param esquemas Son los atributos de cada una de las relaciones hijas.
+     */
+    public PreservacionDependencias(final Descriptor atributos, final DependenciasFuncionales dfs, final List<Descriptor> esquemas)
+    {
+        universo = new UniversoAtributos(atributos);
+        indice = new IndiceCierre(universo, dfs);
+        this.esquemas = new DescriptorCompacto[esquemas.size()];
+        for(int i = 0; i != this.esquemas.length; ++i)
+            this.esquemas[i] = universo.compactar(esquemas.get(i));
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si la descomposición conserva la dependencia
+     * indicada.
+     */
+    public boolean conserva(final DependenciaFuncional df)
+    {
+        DescriptorCompacto determinante = universo.compactar(df.obtenerDeterminante());
+        DescriptorCompacto determinado = universo.compactar(df.obtenerDeterminado());
+        
+        /* si alguna relación hija contiene todos los atributos de la dependencia, se conserva */
+        DescriptorCompacto atributos = determinante.union(determinado);
+        for(DescriptorCompacto esquema : esquemas)
+            if(atributos.esContenido(esquema))
+                return true;
+        
+        DescriptorCompacto z = determinante;
+        boolean cambios = true;
+        while(cambios && !determinado.esContenido(z))
+        {
+            cambios = false;
+            for(DescriptorCompacto esquema : esquemas)
+            {
+                DescriptorCompacto cierre = indice.obtenerCierre(z.interseccion(esquema));
+                cierre.retener(esquema);
+                cambios |= z.insertar(cierre);
+            }
+        }
+        return determinado.esContenido(z);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si la descomposición conserva todas las dependencias
+     * del conjunto indicado.
+     */
+    public boolean conserva(final DependenciasFuncionales dfs)
+    {
+        for(DependenciaFuncional df : dfs)
+            if(!conserva(df))
+                return false;
+        return true;
+    }
+    
+    private final UniversoAtributos universo;
+    private final IndiceCierre indice;
+    private final DescriptorCompacto[] esquemas;
+}
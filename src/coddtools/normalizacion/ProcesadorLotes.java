@@ -0,0 +1,334 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Normaliza (a FNBC) un lote de relaciones, leídas de una en una de un flujo de entrada, con la
+ * sintaxis de Relacion.fromString y una relación por línea (las líneas vacías se ignoran).
+ * Las relaciones se analizan en paralelo en un conjunto de hilos, pero los resultados se escriben en
+ * el mismo orden que las relaciones de entrada, a medida que van terminando.
+ * Como mucho hay un número acotado de relaciones leídas pendientes de escribir (ventana), luego la
+ * memoria necesaria no depende del tamaño del lote. Las relaciones del lote comparten una tabla de
+ * descomposiciones (TablaDescomposiciones), luego los esquemas repetidos solo se descomponen una vez;
+ * la tabla está acotada (ver TablaDescomposiciones), así que tampoco ella crece con el lote.
+ * Un error al analizar una relación (incluido un Error de la máquina virtual, como falta de memoria o
+ * desbordamiento de pila) solo afecta a esa relación: se escribe en su lugar y se sigue con el lote.
+ * @author victor
+ */
+public class ProcesadorLotes {
+    /* Constructores */
+    /**
+     * Construye un procesador que usa tantos hilos como procesadores disponibles.
+     */
+    public ProcesadorLotes()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * @param hilos Es el número de hilos que analizan relaciones (al menos uno). La ventana será de
+     * cuatro relaciones por hilo.
+     */
+    public ProcesadorLotes(int hilos)
+    {
+        this(hilos, 4 * hilos);
+    }
+    
+    /**
+     * @param hilos Es el número de hilos que analizan relaciones (al menos uno).
+     * @param ventana Es el número máximo de relaciones leídas cuyo resultado aún no se ha escrito (al
+     * menos uno).
+     */
+    public ProcesadorLotes(int hilos, int ventana)
+    {
+        this(hilos, ventana, TablaDescomposiciones.CAPACIDAD_POR_DEFECTO);
+    }
+    
+    /**
+     * @param hilos Es el número de hilos que analizan relaciones (al menos uno).
+     * @param ventana Es el número máximo de relaciones leídas cuyo resultado aún no se ha escrito (al
+     * menos uno).
+     * @param capacidadTabla Es el número máximo de árboles de descomposición memorizados durante el
+     * procesamiento de un lote. Si es 0, no se memoriza ninguno.
+     */
+    public ProcesadorLotes(int hilos, int ventana, int capacidadTabla)
+    {
+        if((hilos < 1) || (ventana < 1) || (capacidadTabla < 0))
+            throw new IllegalArgumentException();
+        this.hilos = hilos;
+        this.ventana = ventana;
+        this.capacidadTabla = capacidadTabla;
+    }
+    
+    /**
+     * Procesa todas las relaciones de la entrada. Por cada relación se escribe una línea con la relación,
+     * y a continuación una línea por cada una de las relaciones finales de su descomposición recursiva
+     * (legal y de reunión sin pérdida) con su forma normal. Si una línea no es una relación válida
+     * (ErrorSintaxis), o si falla el análisis de la relación, se escribe un mensaje de error en su lugar.
+     * @return Devuelve un resumen del procesamiento (rendimiento y latencias).
+     * @throws IOException Si ocurre un error de lectura o escritura.
+     */
+    public Resumen procesar(BufferedReader entrada, Writer salida) throws IOException
+    {
+        final TablaDescomposiciones tabla = (capacidadTabla > 0) ? new TablaDescomposiciones(capacidadTabla) : null;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        Queue<Tarea> pendientes = new ArrayDeque<Tarea>(ventana);
+        Resumen resumen = new Resumen();
+        long inicio = System.nanoTime();
+        try
+        {
+            String linea;
+            int numeroLinea = 0;
+            while((linea = entrada.readLine()) != null)
+            {
+                ++numeroLinea;
+                if(linea.trim().isEmpty())
+                    continue;
+                if(pendientes.size() == ventana)
+                    escribir(pendientes.remove(), salida, resumen); /* esperamos al más antiguo */
+                Tarea tarea = new Tarea(linea, numeroLinea, tabla);
+                tarea.futuro = ejecutor.submit(tarea);
+                pendientes.add(tarea);
+            }
+            while(!pendientes.isEmpty())
+                escribir(pendientes.remove(), salida, resumen);
+            salida.flush();
+        }
+        finally
+        {
+            ejecutor.shutdownNow();
+        }
+        resumen.finalizar(System.nanoTime() - inicio);
+        return resumen;
+    }
+    
+    private static void escribir(Tarea tarea, Writer salida, Resumen resumen) throws IOException
+    {
+        Resultado resultado;
+        try
+        {
+            resultado = tarea.futuro.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch(ExecutionException e)
+        {
+            /* las tareas capturan sus propios errores; solo llegan aquí los lanzados al capturarlos */
+            resultado = tarea.fallo(e.getCause(), 0);
+        }
+        salida.write(resultado.texto);
+        resumen.anadir(resultado.latencia, resultado.noValida, resultado.fallida);
+    }
+    
+    /* análisis de una relación */
+    private static class Tarea implements Callable<Resultado>
+    {
+        Tarea(String linea, int numeroLinea, TablaDescomposiciones tabla)
+        {
+            this.linea = linea;
+            this.numeroLinea = numeroLinea;
+            this.tabla = tabla;
+        }
+        
+        @Override
+        public Resultado call()
+        {
+            long inicio = System.nanoTime();
+            Relacion r;
+            try
+            {
+                r = Relacion.fromString(linea);
+            }
+            catch(ErrorSintaxis e)
+            {
+                return new Resultado("linea " + numeroLinea + ": relacion no valida (" + e.getMessage() + ")" + SEPARADOR, 
+                        System.nanoTime() - inicio, true, false);
+            }
+            StringBuilder texto = new StringBuilder();
+            try
+            {
+                DescomposicionRecursiva d = new DescomposicionRecursiva(r, FormaNormal.FNBC, true, true, 
+                        EstrategiaDescomposicion.BINARIA, tabla);
+                texto.append(r).append(SEPARADOR);
+                for(NodoDescomposicionRecursiva nodo : d.obtenerNodoRaiz().obtenerNodosFinales())
+                {
+                    Relacion hija = nodo.obtenerRelacion();
+                    texto.append("    ").append(hija).append(" && ").append(hija.obtenerFormaNormal());
+                    if(nodo.esProyeccionIncompleta())
+                        texto.append(" (proyeccion incompleta)");
+                    texto.append(SEPARADOR);
+                }
+            }
+            catch(RuntimeException | Error e)
+            {
+                texto = null; /* se libera antes de escribir el mensaje (e.g. si falta memoria) */
+                return fallo(e, System.nanoTime() - inicio);
+            }
+            return new Resultado(texto.toString(), System.nanoTime() - inicio, false, false);
+        }
+        
+        /* resultado de una relación cuyo análisis ha fallado */
+        Resultado fallo(Throwable causa, long latencia)
+        {
+            return new Resultado("linea " + numeroLinea + ": error al analizar la relacion (" + causa + ")" + SEPARADOR, 
+                    latencia, false, true);
+        }
+        
+        private final String linea;
+        private final int numeroLinea;
+        private final TablaDescomposiciones tabla;
+        Future<Resultado> futuro; /* solo lo usa el hilo que lee y escribe el lote */
+    }
+    
+    private static class Resultado
+    {
+        Resultado(String texto, long latencia, boolean noValida, boolean fallida)
+        {
+            this.texto = texto;
+            this.latencia = latencia;
+            this.noValida = noValida;
+            this.fallida = fallida;
+        }
+        
+        final String texto;
+        final long latencia; /* nanosegundos */
+        final boolean noValida, fallida;
+    }
+    
+    /**
+     * Resumen del procesamiento de un lote: número de relaciones, rendimiento, y percentiles de la
+     * latencia (tiempo de análisis de cada relación).
+     */
+    public static class Resumen
+    {
+        private Resumen()
+        {
+            latencias = new long[1024];
+        }
+        
+        private void anadir(long latencia, boolean noValida, boolean fallida)
+        {
+            if(numero == latencias.length)
+                latencias = Arrays.copyOf(latencias, 2 * numero);
+            latencias[numero++] = latencia;
+            if(noValida)
+                ++errores;
+            if(fallida)
+                ++fallos;
+        }
+        
+        private void finalizar(long tiempoTotal)
+        {
+            this.tiempoTotal = tiempoTotal;
+            Arrays.sort(latencias, 0, numero);
+        }
+        
+        /**
+         * @return Devuelve el número de relaciones procesadas (incluidas las no válidas).
+         */
+        public int obtenerNumeroRelaciones()
+        {
+            return numero;
+        }
+        
+        /**
+         * @return Devuelve el número de líneas que no eran relaciones válidas.
+         */
+        public int obtenerErrores()
+        {
+            return errores;
+        }
+        
+        /**
+         * @return Devuelve el número de relaciones válidas cuyo análisis falló.
+         */
+        public int obtenerFallos()
+        {
+            return fallos;
+        }
+        
+        /**
+         * @return Devuelve el tiempo total del procesamiento, en nanosegundos.
+         */
+        public long obtenerTiempoTotal()
+        {
+            return tiempoTotal;
+        }
+        
+        /**
+         * @return Devuelve el número de relaciones procesadas por segundo.
+         */
+        public double obtenerRendimiento()
+        {
+            return (tiempoTotal == 0) ? 0 : numero * 1e9 / tiempoTotal;
+        }
+        
+        /**
+         * @param percentil Es un valor entre 0 y 100.
+         * @return Devuelve la latencia del percentil indicado, en nanosegundos, o 0 si no se procesó
+         * ninguna relación.
+         */
+        public long obtenerLatencia(double percentil)
+        {
+            if(numero == 0)
+                return 0;
+            int i = (int)Math.ceil(percentil / 100 * numero) - 1;
+            return latencias[Math.max(0, Math.min(numero - 1, i))];
+        }
+        
+        @Override
+        public String toString()
+        {
+            return String.format("%d relaciones (%d no validas, %d fallidas) en %.3f s, %.1f relaciones/s; latencia (ms): "
+                    + "p50 %.3f, p90 %.3f, p99 %.3f, max %.3f", numero, errores, fallos, tiempoTotal / 1e9, obtenerRendimiento(),
+                    obtenerLatencia(50) / 1e6, obtenerLatencia(90) / 1e6, obtenerLatencia(99) / 1e6, obtenerLatencia(100) / 1e6);
+        }
+        
+        private long[] latencias; /* nanosegundos; ordenadas al finalizar */
+        private int numero, errores, fallos;
+        private long tiempoTotal;
+    }
+    
+    private static final String SEPARADOR = System.getProperty("line.separator");
+    
+    private final int hilos;
+    private final int ventana;
+    private final int capacidadTabla;
+}
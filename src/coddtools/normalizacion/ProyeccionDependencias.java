@@ -0,0 +1,252 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calcula la proyección de un conjunto de dependencias funcionales F sobre un conjunto de atributos S,
+ * es decir, un recubrimiento de las dependencias de F+ cuyos atributos están todos en S, sin calcular
+ * F+ ni el cierre de todos los subconjuntos de S.
+ * Se usa la reducción por resolución (Gottlob): se eliminan uno a uno los atributos B que no están en
+ * S; al eliminar B, cada par de dependencias X -> B, YB -> C se sustituye por la resolvente XY -> C,
+ * y se descartan las dependencias en las que aparece B. Tras cada eliminación se podan las dependencias
+ * triviales y las que tienen un determinante que contiene al de otra dependencia con el mismo
+ * determinado. Se elimina primero el atributo que da lugar a menos resolventes.
+ * En el peor caso el número de dependencias intermedias crece exponencialmente; si supera el
+ * presupuesto indicado, se lanza ProyeccionIncompleta con un recubrimiento parcial (todas sus
+ * dependencias pertenecen a la proyección, pero puede no implicarlas todas): el formado por
+ * X -> (X+ ^ S) para cada determinante X de F contenido en S.
+ * Las proyecciones calculadas se memorizan (también las que superan el presupuesto, que se memorizan
+ * como parciales).
+ * @author victor
+ */
+public class ProyeccionDependencias {
+    /**
+     * @param dfs Es el conjunto de dependencias funcionales a proyectar. No debe modificarse mientras
+     * se use esta instancia.
+     * @param presupuesto Es el número máximo de dependencias intermedias.
+     */
+    public ProyeccionDependencias(final DependenciasFuncionales dfs, int presupuesto)
+    {
+        assert presupuesto > 0;
+        this.dfs = dfs;
+        this.presupuesto = presupuesto;
+        this.indice = dfs.obtenerIndiceCierre();
+        this.universo = indice.obtenerUniverso();
+        this.proyecciones = new HashMap<DescriptorCompacto, DependenciasFuncionales>();
+        this.parciales = new HashMap<DescriptorCompacto, DependenciasFuncionales>();
+    }
+    
+    /**
+     * @return Devuelve el recubrimiento minimal de la proyección de las dependencias sobre los
+     * atributos indicados. (Los atributos que no aparecen en ninguna dependencia se ignoran)
+     * @throws ProyeccionIncompleta si calcular la proyección supera el presupuesto.
+     */
+    public DependenciasFuncionales proyectar(final Descriptor atributos) throws ProyeccionIncompleta
+    {
+        DescriptorCompacto s = new DescriptorCompacto(universo);
+        for(Atributo atributo : atributos)
+        {
+            int i = universo.obtenerIndice(atributo);
+            if(i >= 0)
+                s.insertar(i);
+        }
+        
+        DependenciasFuncionales proyeccion, parcial;
+        synchronized(this)
+        {
+            proyeccion = proyecciones.get(s);
+            parcial = parciales.get(s);
+        }
+        if((proyeccion == null) && (parcial == null))
+        {
+            proyeccion = calcular(s);
+            if(proyeccion == null)
+                parcial = calcularParcial(s);
+            synchronized(this)
+            {
+                if(proyeccion != null)
+                    proyecciones.put(s, proyeccion);
+                else
+                    parciales.put(s, parcial);
+            }
+        }
+        if(parcial != null)
+            throw new ProyeccionIncompleta(atributos, parcial);
+        /* devolvemos una copia, la proyección memorizada no debe modificarse */
+        DependenciasFuncionales copia = new DependenciasFuncionales();
+        copia.insertar(proyeccion);
+        return copia;
+    }
+    
+    /* devuelve null si se supera el presupuesto */
+    private DependenciasFuncionales calcular(final DescriptorCompacto s)
+    {
+        /* dependencias con un único atributo en el determinado */
+        List<Elemental> g = new ArrayList<Elemental>();
+        for(DependenciaFuncional df : dfs)
+        {
+            DescriptorCompacto determinante = universo.compactar(df.obtenerDeterminante());
+            for(Atributo atributo : df.obtenerDeterminado())
+            {
+                int determinado = universo.obtenerIndice(atributo);
+                if(!determinante.contiene(determinado))
+                    g.add(new Elemental(determinante, determinado));
+            }
+        }
+        g = podar(g);
+        
+        DescriptorCompacto eliminar = universo.obtenerTodos();
+        eliminar.eliminar(s);
+        while(!eliminar.esVacio())
+        {
+            /* elegimos el atributo que genera menos resolventes */
+            int b = -1;
+            long minimo = Long.MAX_VALUE;
+            for(int i = eliminar.siguiente(0); i >= 0; i = eliminar.siguiente(i + 1))
+            {
+                long determinan = 0, dependen = 0;
+                for(Elemental df : g)
+                {
+                    if(df.determinado == i)
+                        determinan++;
+                    if(df.determinante.contiene(i))
+                        dependen++;
+                }
+                if(determinan * dependen < minimo)
+                {
+                    minimo = determinan * dependen;
+                    b = i;
+                }
+            }
+            if(g.size() + minimo > presupuesto)
+                return null;
+            
+            /* resolventes */
+            List<Elemental> siguiente = new ArrayList<Elemental>();
+            for(Elemental p : g)
+            {
+                if(p.determinado != b)
+                {
+                    if(!p.determinante.contiene(b))
+                        siguiente.add(p);
+                    continue;
+                }
+                for(Elemental q : g)
+                {
+                    if(!q.determinante.contiene(b))
+                        continue;
+                    DescriptorCompacto determinante = new DescriptorCompacto(q.determinante);
+                    determinante.eliminar(b);
+                    determinante.insertar(p.determinante);
+                    if(!determinante.contiene(q.determinado))
+                        siguiente.add(new Elemental(determinante, q.determinado));
+                }
+            }
+            g = podar(siguiente);
+            eliminar.eliminar(b);
+        }
+        
+        DependenciasFuncionales proyeccion = new DependenciasFuncionales();
+        for(Elemental df : g)
+        {
+            DescriptorCompacto determinado = new DescriptorCompacto(universo);
+            determinado.insertar(df.determinado);
+            proyeccion.insertar(new DependenciaFuncional(df.determinante.aDescriptor(), determinado.aDescriptor()));
+        }
+        return proyeccion.obtenerRecubrimientoMinimal();
+    }
+    
+    /* recubrimiento parcial, si se supera el presupuesto */
+    private DependenciasFuncionales calcularParcial(final DescriptorCompacto s)
+    {
+        DependenciasFuncionales parcial = new DependenciasFuncionales();
+        for(DependenciaFuncional df : dfs)
+        {
+            DescriptorCompacto determinante = universo.compactar(df.obtenerDeterminante());
+            if(!s.contiene(determinante))
+                continue;
+            DescriptorCompacto determinado = indice.obtenerCierre(determinante);
+            determinado.retener(s);
+            determinado.eliminar(determinante);
+            if(!determinado.esVacio())
+                parcial.insertar(new DependenciaFuncional(determinante.aDescriptor(), determinado.aDescriptor()));
+        }
+        return parcial.obtenerRecubrimientoMinimal();
+    }
+    
+    /* elimina las dependencias repetidas o cuyo determinante contiene al de otra con el mismo
+    determinado */
+    private static List<Elemental> podar(final List<Elemental> g)
+    {
+        List<Elemental> podadas = new ArrayList<Elemental>();
+        for(int i = 0; i != g.size(); ++i)
+        {
+            Elemental df = g.get(i);
+            boolean subsumida = false;
+            for(int j = 0; (j != g.size()) && !subsumida; ++j)
+            {
+                Elemental otra = g.get(j);
+                if((i != j) && (otra.determinado == df.determinado) && df.determinante.contiene(otra.determinante))
+                    /* entre dos iguales, conservamos la primera */
+                    subsumida = !otra.determinante.esIgual(df.determinante) || (j < i);
+            }
+            if(!subsumida)
+                podadas.add(df);
+        }
+        return podadas;
+    }
+    
+    /* dependencia funcional cuyo determinado es un único atributo */
+    private static class Elemental
+    {
+        Elemental(final DescriptorCompacto determinante, int determinado)
+        {
+            this.determinante = determinante;
+            this.determinado = determinado;
+        }
+        
+        final DescriptorCompacto determinante;
+        final int determinado;
+    }
+    
+    /**
+     * Es el presupuesto usado por DependenciasFuncionales.obtenerProyeccion
+     */
+    public static final int PRESUPUESTO_POR_DEFECTO = 10000;
+    
+    private final DependenciasFuncionales dfs;
+    private final int presupuesto;
+    private final IndiceCierre indice;
+    private final UniversoAtributos universo;
+    private final Map<DescriptorCompacto, DependenciasFuncionales> proyecciones; /* proyecciones
+    memorizadas */
+    private final Map<DescriptorCompacto, DependenciasFuncionales> parciales; /* recubrimientos parciales
+    memorizados de las proyecciones que superan el presupuesto */
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+/**
+ * Es la excepción lanzada cuando no se puede calcular la proyección de un conjunto de dependencias
+ * funcionales sobre un conjunto de atributos sin superar el presupuesto de dependencias intermedias
+ * (ProyeccionDependencias). Contiene un recubrimiento parcial de la proyección: todas sus dependencias
+ * pertenecen a la proyección, pero puede no implicarlas todas.
+ * @see ProyeccionDependencias
+ * @author victor
+ */
+public class ProyeccionIncompleta extends RuntimeException {
+    /**
+     * @param atributos Son los atributos sobre los que se proyectaba.
+     * @param parcial Es un recubrimiento parcial de la proyección.
+     */
+    public ProyeccionIncompleta(Descriptor atributos, DependenciasFuncionales parcial)
+    {
+        super("la proyeccion sobre {" + atributos + "} supera el presupuesto");
+        this.parcial = parcial;
+    }
+    
+    /**
+     * @return Devuelve un recubrimiento parcial de la proyección (sus dependencias pertenecen a la
+     * proyección, pero puede no implicarlas todas).
+     */
+    public DependenciasFuncionales obtenerProyeccionParcial()
+    {
+        DependenciasFuncionales copia = new DependenciasFuncionales();
+        copia.insertar(parcial);
+        return copia;
+    }
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final transient DependenciasFuncionales parcial;
+}
@@ -24,11 +24,7 @@
 
 package coddtools.normalizacion;
 
-import coddtools.util.Combinaciones;
 import coddtools.util.Conjunto;
-import java.util.Iterator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Representa una relación R(A, F); Posee un conjunto de dependencias funcionales,
@@ -39,7 +35,8 @@ public class Relacion implements Comparable<Relacion> {
     
     /* Constructor */
     /**
-     * Constructor.
+     * Constructor. El recubrimiento minimal, las claves y la forma normal de la relación no se
+     * calculan aquí, sino la primera vez que se consultan (o al invocar precalcular()).
      * @param nombre Es el nombre de la relación.
      * @param atributos Es el conjunto de atributos de la relación
      * @param dfs Es el conjunto de dependencias funcionales
@@ -50,67 +47,80 @@ public class Relacion implements Comparable<Relacion> {
         atributos de la propia relación!
         */
         assert !atributos.esVacio() && dfs.estanCompuestasPor(atributos);
+        assert AnalizadorSintactico.esNombreRelacion(nombre); /* para que fromString(toString()) la reconstruya */
         
         this.atributos = atributos;
         this.dfs = dfs;
         this.nombre = nombre;
-        generarRecubrimientoMinimal();
-        generarClavesMinimas();
-        resolverFormaNormal();
+        semillaClaves = atributos;
     }
     
-    
-    private void generarRecubrimientoMinimal() 
+    /**
+     * Construye una relación cuyas dependencias funcionales son equivalentes a las de otra relación
+     * con los mismos atributos. Se reutilizan el recubrimiento minimal, las claves y la forma normal
+     * que ya se hayan calculado para la otra relación.
+     * @param equivalente Es una relación con los mismos atributos y cuyas dependencias tienen el mismo
+     * cierre que dfs.
+     */
+    Relacion(String nombre, Descriptor atributos, DependenciasFuncionales dfs, Relacion equivalente)
     {
-       recubrimientoMinimal = dfs.obtenerRecubrimientoMinimal();
+        assert atributos.esIgual(equivalente.obtenerAtributos()) && dfs.esEquivalente(equivalente.obtenerDependenciasFuncionales());
+        assert AnalizadorSintactico.esNombreRelacion(nombre);
+        
+        this.atributos = atributos;
+        this.dfs = dfs;
+        this.nombre = nombre;
+        synchronized(equivalente)
+        {
+            recubrimientoMinimal = equivalente.recubrimientoMinimal;
+            semillaClaves = equivalente.semillaClaves;
+            generadorClaves = equivalente.generadorClaves;
+            clavesMinimas = equivalente.clavesMinimas;
+            clasificadorPrimos = equivalente.clasificadorPrimos;
+            formaNormal = equivalente.formaNormal;
+        }
     }
     
-    private void generarClavesMinimas()
+    /**
+     * Construye una relación de la que ya se conoce el recubrimiento minimal de sus dependencias.
+     * @param recubrimientoMinimal Es un recubrimiento minimal de dfs.
+     * @param semillaClaves Es un descriptor a partir del que se obtiene la primera clave mínima (por
+     * ejemplo, una clave de la relación antes de modificar sus dependencias).
+     * @see GeneradorClaves
+     */
+    Relacion(String nombre, Descriptor atributos, DependenciasFuncionales dfs, DependenciasFuncionales recubrimientoMinimal,
+            Descriptor semillaClaves)
     {
-        clavesMinimas = generarClavesMinimas(obtenerAtributos());
+        assert !atributos.esVacio() && dfs.estanCompuestasPor(atributos) && dfs.esEquivalente(recubrimientoMinimal);
+        assert AnalizadorSintactico.esNombreRelacion(nombre);
+        
+        this.atributos = atributos;
+        this.dfs = dfs;
+        this.nombre = nombre;
+        this.recubrimientoMinimal = recubrimientoMinimal;
+        this.semillaClaves = semillaClaves;
     }
     
     /**
-     * @param descriptor
-     * @return Devuelve un conjunto de descriptores que serán claves mínimas de la
-     * relación pero que ademas son subconjuntos del descriptor.
+     * Calcula el recubrimiento minimal, las claves mínimas y la forma normal de la relación, si aún no
+     * se habían calculado. Es útil para quien prefiera pagar el coste del análisis al construir la
+     * relación, en vez de en la primera consulta.
+     * @return Devuelve esta misma relación.
      */
-    private Conjunto<Descriptor> generarClavesMinimas(Descriptor descriptor)
+    public final Relacion precalcular()
     {
-        Conjunto<Descriptor> clavesMinimas = new Conjunto<Descriptor>();
-        /* comprobamos si este descriptor es superclave */
-        if(obtenerRecubrimientoMinimal().obtenerCierre().contiene(new DependenciaFuncional(descriptor, obtenerAtributos())))
-        {
-            if(descriptor.esAtributoUnico())
-            {
-                /* el descriptor es superclave y es atributo único, luego es clave mínima */
-                clavesMinimas.insertar(descriptor);
-            }
-            else
-            {
-                /* generamos todas las claves mínimas de n-1,n-2, ..., 1 elementos */
-                Iterator<Conjunto<Atributo>> it = new Combinaciones(descriptor, descriptor.obtenerCardinal() - 1).iterator();
-                while(it.hasNext())
-                {
-                    Conjunto<Atributo> aux = it.next();
-                    Descriptor subconjunto = new Descriptor();
-                    subconjunto.insertar(aux);
-                    clavesMinimas.insertar(generarClavesMinimas(subconjunto));
-                }
-                
-                /* si no hay claves mínimas de cualquier subconjunto del descriptor, y como el 
-                descriptor es superclave, este será clave mínima
-                */
-                if(clavesMinimas.esVacio())
-                    clavesMinimas.insertar(descriptor);
-            }
-        }
-        return clavesMinimas;
+        obtenerRecubrimientoMinimal();
+        obtenerClavesMinimas();
+        obtenerFormaNormal();
+        return this;
     }
     
-    private void resolverFormaNormal() 
+    private synchronized GeneradorClaves obtenerGeneradorClaves()
     {
-        formaNormal = FormaNormal.obtenerFormaNormal(this);
+        /* las claves se generan bajo demanda */
+        if(generadorClaves == null)
+            generadorClaves = new GeneradorClaves(obtenerAtributos(), obtenerRecubrimientoMinimal(), semillaClaves);
+        return generadorClaves;
     }
     
     /* Consultores */
@@ -136,9 +146,10 @@ public class Relacion implements Comparable<Relacion> {
      * @return Devuelve el recubrimiento mínimal del conjunto de dependencias funcionales
      * de esta relación
      */
-    public final DependenciasFuncionales obtenerRecubrimientoMinimal() 
+    public final synchronized DependenciasFuncionales obtenerRecubrimientoMinimal() 
     {
-        // return obtenerDependenciasFuncionales().obtenerRecubrimientoMinimal();
+        if(recubrimientoMinimal == null)
+            recubrimientoMinimal = dfs.obtenerRecubrimientoMinimal();
         return recubrimientoMinimal;
     }
     
@@ -155,8 +166,10 @@ public class Relacion implements Comparable<Relacion> {
      * 
      * @return Devuelve el nivel de normalización de esta relación. 
      */
-    public final FormaNormal obtenerFormaNormal()
+    public final synchronized FormaNormal obtenerFormaNormal()
     {
+        if(formaNormal == null)
+            formaNormal = FormaNormal.obtenerFormaNormal(this);
         return formaNormal;
     }
     
@@ -167,22 +180,37 @@ public class Relacion implements Comparable<Relacion> {
      * atributos de la relación (claves mínimas). 
      * @note Notese que al menos habrá una clave mínima.
      */
-    public final Conjunto<Descriptor> obtenerClavesMinimas()
+    public final synchronized Conjunto<Descriptor> obtenerClavesMinimas()
     {
+        if(clavesMinimas == null)
+            clavesMinimas = obtenerGeneradorClaves().generar();
         return clavesMinimas;
     }
     
+    /**
+     * @return Devuelve las claves mínimas de la relación. A diferencia de obtenerClavesMinimas(),
+     * las claves se van generando a medida que se recorren, luego quien deje de recorrerlas antes
+     * de llegar al final no paga el coste de generarlas todas.
+     */
+    public final Iterable<Descriptor> obtenerClavesCandidatas()
+    {
+        return obtenerGeneradorClaves();
+    }
+    
     /**
      * @return Devuelve el conjunto de atributos que forman parte de alguna de las claves
      * mínimas de la relación
      */
     public final Descriptor obtenerAtributosPrimos() 
     {
-        Iterator<Descriptor> it = obtenerClavesMinimas().iterator();
-        Descriptor primos = new Descriptor();
-        while(it.hasNext())
-            primos.insertar(it.next());
-        return primos;
+        return obtenerClasificadorPrimos().obtenerPrimos().aDescriptor();
+    }
+    
+    private synchronized ClasificadorAtributosPrimos obtenerClasificadorPrimos()
+    {
+        if(clasificadorPrimos == null)
+            clasificadorPrimos = new ClasificadorAtributosPrimos(obtenerGeneradorClaves(), obtenerRecubrimientoMinimal());
+        return clasificadorPrimos;
     }
    
     /**
@@ -191,11 +219,9 @@ public class Relacion implements Comparable<Relacion> {
      */
     public final boolean esSuperClave(final Descriptor descriptor)
     {
-        Iterator<Descriptor> it = obtenerClavesMinimas().iterator();
-        Descriptor claveMinima = it.next();
-        while(it.hasNext() && !claveMinima.esContenido(descriptor))
-            claveMinima = it.next();
-        return claveMinima.esContenido(descriptor);
+        /* es superclave si su cierre contiene a todos los atributos; no hace falta conocer las
+        claves mínimas */
+        return obtenerGeneradorClaves().esSuperClave(descriptor);
     }
     
     /**
@@ -204,11 +230,19 @@ public class Relacion implements Comparable<Relacion> {
      */
     public final boolean esClaveMinima(final Descriptor descriptor)
     {
-        Iterator<Descriptor> it = obtenerClavesMinimas().iterator();
-        Descriptor claveMinima = it.next();
-        while(it.hasNext() && !claveMinima.esIgual(descriptor))
-            claveMinima = it.next();
-        return claveMinima.esIgual(descriptor);
+        /* es clave mínima si es superclave y al quitarle cualquier atributo deja de serlo */
+        if(!descriptor.esContenido(obtenerAtributos()) || !esSuperClave(descriptor))
+            return false;
+        Descriptor subconjunto = new Descriptor();
+        subconjunto.insertar(descriptor);
+        for(Atributo atributo : descriptor)
+        {
+            subconjunto.eliminar(atributo);
+            if(esSuperClave(subconjunto))
+                return false;
+            subconjunto.insertar(atributo);
+        }
+        return true;
     }
     
     /**
@@ -217,11 +251,18 @@ public class Relacion implements Comparable<Relacion> {
      */
     public final boolean esPrimo(final Descriptor descriptor)
     {
-        Iterator<Descriptor> it = obtenerClavesMinimas().iterator();
-        Descriptor claveMinima = it.next();
-        while(it.hasNext() && !claveMinima.contiene(descriptor))
-            claveMinima = it.next();
-        return claveMinima.contiene(descriptor);        
+        DescriptorCompacto compacto = obtenerGeneradorClaves().compactar(descriptor);
+        if((compacto.obtenerCardinal() != descriptor.obtenerCardinal()) || 
+                !obtenerClasificadorPrimos().obtenerPrimos().contiene(compacto))
+            return false; /* tiene algún atributo que no está en ninguna clave */
+        if(obtenerClasificadorPrimos().obtenerNucleo().contiene(compacto))
+            return true; /* todos sus atributos están en todas las claves */
+        
+        /* dejamos de generar claves en cuanto encontramos una que lo contenga */
+        for(Descriptor claveMinima : obtenerClavesCandidatas())
+            if(claveMinima.contiene(descriptor))
+                return true;
+        return false;
     }
     
     /**
@@ -232,11 +273,31 @@ public class Relacion implements Comparable<Relacion> {
      */
     public final boolean esPrimoEstricto(final Descriptor descriptor)
     {
-        Iterator<Descriptor> it = obtenerClavesMinimas().iterator();
-        Descriptor claveMinima = it.next();
-        while(it.hasNext() && !claveMinima.contieneEstrictamente(descriptor))
-            claveMinima = it.next();
-        return claveMinima.contieneEstrictamente(descriptor);        
+        DescriptorCompacto compacto = obtenerGeneradorClaves().compactar(descriptor);
+        if((compacto.obtenerCardinal() != descriptor.obtenerCardinal()) || 
+                !obtenerClasificadorPrimos().obtenerPrimos().contiene(compacto))
+            return false;
+        /* si es superclave, contiene a una clave mínima, luego no puede estar contenido 
+        estríctamente en otra */
+        if(obtenerGeneradorClaves().esSuperClave(compacto))
+            return false;
+        if(obtenerClasificadorPrimos().obtenerNucleo().contiene(compacto))
+            return true; /* está contenido en todas las claves y no es ninguna de ellas */
+        
+        for(Descriptor claveMinima : obtenerClavesCandidatas())
+            if(claveMinima.contieneEstrictamente(descriptor))
+                return true;
+        return false;
+    }
+    
+    /**
+     * @return Devuelve una relación con los mismos atributos y dependencias funcionales que esta, pero
+     * con otro nombre. La nueva relación comparte el análisis (recubrimiento minimal, claves y forma
+     * normal) de esta.
+     */
+    public final Relacion renombrar(String nombre)
+    {
+        return new Relacion(nombre, obtenerAtributos(), obtenerDependenciasFuncionales(), this);
     }
     
     /**
@@ -258,11 +319,14 @@ public class Relacion implements Comparable<Relacion> {
      * Convierte una cadena de caracteres en una relación, con sus atributos y dependencias
      * funcionales. 
      * La sintaxis es la siguiente: nombre({A1, A2, ..., An}, {X1 -> Y1; X2 -> Y2; ... ; Xm -> Ym}) 
-     * Donde nombre, es el nombre que se le quiere indicar a la relación. 
-     * El nombre de la relación, como los atributos de relación y los descriptores de las
-     * dependencias funcionales, podrán contener los siguientes caracteres: 
+     * Donde nombre, es el nombre que se le quiere indicar a la relación: cualquier secuencia de
+     * caracteres sin espacios ni '(' (e.g. R, R.1.2 o R-1).
+     * Los atributos de relación y los descriptores de las dependencias funcionales, podrán contener
+     * los siguientes caracteres: 
      * _,@,%,$
      * (A-Z,a-z,0-9,_)
+     * Para cualquier relación r, fromString(r.toString()) es una relación con el mismo nombre, atributos
+     * y dependencias funcionales que r.
      * Los elementos A1, A2, ..., An son los atributos de la relación, y
      * X1 -> Y1, X2 -> Y2, ..., es el conjunto de dependencias funcionales de la misma.
      * 
@@ -270,61 +334,12 @@ public class Relacion implements Comparable<Relacion> {
      * @return Devuelve la relación cuya representación en formato de cadena de caracteres es la
      * indicada como parámetro.
      * @throws IllegalArgumentException Lanza esta excepción si el formato de la cadena de caracteres
-     * no es correcto.
+     * no es correcto (ErrorSintaxis, que indica la posición del error).
+     * @see AnalizadorSintactico
      */
     public static Relacion fromString(String str) throws IllegalArgumentException
     {
-        
-        if(!str.matches("[ ]*[A-Z,a-z,0-9,_,,@,$,%]+[ ]*(.+)"))
-            throw new IllegalArgumentException();
-        String parentesisIzq, parentesisDer;
-        parentesisIzq = Pattern.quote("(");
-        parentesisDer = Pattern.quote(")");
-        
-        Pattern pattern = Pattern.compile("[ ]*([^ ]+)[ ]*" + parentesisIzq + "([^" + parentesisDer + "]+)" + parentesisDer);
-        Matcher matcher = pattern.matcher(str);
-        if(!matcher.find())
-            throw new IllegalArgumentException();
-        String desc = matcher.group(2);
-        String nombre = matcher.group(1);
-        
-        /* ahora, deberemos extraer los atributos y el conjunto de dependencias funcionales
-        indicado dentro de la descripción. (texto entre parentesis).
-        */
-        String bracketIzq = Pattern.quote("{");
-        String bracketDer = Pattern.quote("}");
-        String patronConjunto = bracketIzq + "([^" + bracketDer + "]*)"  + bracketDer;
-        pattern = Pattern.compile(patronConjunto + "[ ]*,[ ]*" + patronConjunto);
-        matcher = pattern.matcher(desc);
-        String grupoAtributos, grupoDfs;
-        
-                
-        if(!matcher.find())
-            throw new IllegalArgumentException();
-        
-        try {  
-            grupoAtributos = matcher.group(1);
-            
-        }catch(IllegalStateException e) { 
-            grupoAtributos = "";
-        }
-        try { 
-            grupoDfs = matcher.group(2);
-        }catch(IllegalStateException e) { 
-            grupoDfs = "";
-        }
-        
-        
-        /* Discretizamos los atributos de la relación y sus dependencias funcionales */
-        DependenciasFuncionales dfs = DependenciasFuncionales.fromString(grupoDfs);
-        Descriptor atributos = Descriptor.fromString(grupoAtributos);
-        
-        if(!dfs.estanCompuestasPor(atributos) || atributos.esVacio())
-            throw new IllegalArgumentException(); /* esto ocurre si existe una dependencia
-            funcional que posee algún atributo que no está en el conjunto de atributos de la
-            relación, o el conjunto de atributos de relación es vacío.
-        */
-        return new Relacion(nombre, atributos, dfs);
+        return new AnalizadorSintactico(str).analizarRelacion();
     }
     
     @Override
@@ -333,10 +348,16 @@ public class Relacion implements Comparable<Relacion> {
         return obtenerNombre().compareTo(otra.obtenerNombre());
     }
     
-    private DependenciasFuncionales dfs;
+    private final DependenciasFuncionales dfs;
+    private final Descriptor atributos;
+    private final String nombre;
+    
+    /* análisis de la relación; cada campo es null hasta que se consulta por primera vez */
     private DependenciasFuncionales recubrimientoMinimal;
-    private Descriptor atributos;
-    private Conjunto<Descriptor> clavesMinimas;
-    private String nombre;
+    private final Descriptor semillaClaves; /* descriptor del que se obtiene la primera clave */
+    private GeneradorClaves generadorClaves;
+    private Conjunto<Descriptor> clavesMinimas; /* null hasta que se soliciten todas las claves */
+    private ClasificadorAtributosPrimos clasificadorPrimos; /* null hasta que se soliciten los atributos
+    primos */
     private FormaNormal formaNormal;
 }
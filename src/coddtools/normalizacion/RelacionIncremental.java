@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import coddtools.util.FabricaAlmacenes;
+
+/**
+ * Permite modificar las dependencias funcionales de una relación de una en una, actualizando su
+ * recubrimiento minimal, sus claves y su forma normal a partir de los ya calculados, en vez de volver
+ * a calcularlos desde el principio.
+ * - Si la dependencia insertada ya está implicada por las dependencias de la relación (o la eliminada
+ * está implicada por las restantes), el cierre no cambia, y se conservan el recubrimiento minimal, las
+ * claves, la forma normal y los cierres ya calculados.
+ * - En otro caso, al insertar X -> Y, el nuevo recubrimiento minimal se calcula a partir del anterior
+ * junto a X -> Y (no de todas las dependencias), y las claves se generan a partir de una de las claves
+ * anteriores.
+ * - Al eliminar X -> Y, tanto la comprobación de si está implicada por las restantes como, en su caso,
+ * el nuevo recubrimiento minimal se calculan con el índice de cierres de las dependencias anteriores,
+ * en el que X -> Y se desactiva (IndiceCierre.desactivar), sin volver a construirlo.
+ * Las relaciones obtenidas en cada momento son inmutables, luego pueden usarse mientras se sigue
+ * modificando esta relación. Sus dependencias se guardan en conjuntos persistentes
+ * (FabricaAlmacenes.PERSISTENTE): cada modificación copia el conjunto de la relación anterior en tiempo
+ * constante, y la inserción o eliminación de la dependencia cuesta O(log n).
+ * @author victor
+ */
+public class RelacionIncremental {
+    /* Constructores */
+    /**
+     * @param r Es la relación de partida.
+     */
+    public RelacionIncremental(final Relacion r)
+    {
+        if(r.obtenerDependenciasFuncionales().obtenerFabrica() == FabricaAlmacenes.PERSISTENTE)
+            relacion = r;
+        else
+            relacion = new Relacion(r.obtenerNombre(), r.obtenerAtributos(), copiar(r.obtenerDependenciasFuncionales()), r);
+    }
+    
+    /**
+     * @param nombre Es el nombre de la relación.
+     * @param atributos Es el conjunto de atributos de la relación
+     * @param dfs Es el conjunto de dependencias funcionales inicial.
+     */
+    public RelacionIncremental(String nombre, Descriptor atributos, DependenciasFuncionales dfs)
+    {
+        this(new Relacion(nombre, atributos, copiar(dfs)));
+    }
+    
+    /* Modificadores */
+    /**
+     * Inserta una dependencia funcional en la relación.
+     * @return Devuelve un valor booleano indicando si la dependencia no estaba ya en la relación.
+     * @throws IllegalArgumentException Si la dependencia tiene atributos que no son de la relación.
+     */
+    public synchronized boolean insertarDependencia(final DependenciaFuncional df) throws IllegalArgumentException
+    {
+        if(!df.obtenerDeterminante().esContenido(relacion.obtenerAtributos()) || 
+                !df.obtenerDeterminado().esContenido(relacion.obtenerAtributos()))
+            throw new IllegalArgumentException();
+        
+        if(relacion.obtenerDependenciasFuncionales().contiene(df))
+            return false;
+        DependenciasFuncionales dfs = copiar(relacion.obtenerDependenciasFuncionales());
+        dfs.insertar(df);
+        
+        /* el cierre se obtiene de la caché del recubrimiento actual */
+        DependenciasFuncionales recubrimiento = relacion.obtenerRecubrimientoMinimal();
+        if(recubrimiento.obtenerCierre(df.obtenerDeterminante()).contiene(df.obtenerDeterminado()))
+            relacion = new Relacion(relacion.obtenerNombre(), relacion.obtenerAtributos(), dfs, relacion);
+        else
+        {
+            DependenciasFuncionales aux = new DependenciasFuncionales(recubrimiento);
+            aux.insertar(df);
+            relacion = new Relacion(relacion.obtenerNombre(), relacion.obtenerAtributos(), dfs, 
+                    aux.obtenerRecubrimientoMinimal(), obtenerClave());
+        }
+        return true;
+    }
+    
+    /**
+     * Elimina una dependencia funcional de la relación.
+     * @return Devuelve un valor booleano indicando si la dependencia estaba en la relación.
+     */
+    public synchronized boolean eliminarDependencia(final DependenciaFuncional df)
+    {
+        DependenciasFuncionales anteriores = relacion.obtenerDependenciasFuncionales();
+        if(!anteriores.contiene(df))
+            return false;
+        
+        /* la copia comparte el índice de cierres de las dependencias actuales (que se construye si aún
+        no existía), en el que se desactiva la dependencia eliminada */
+        anteriores.obtenerIndiceCierre();
+        DependenciasFuncionales dfs = copiar(anteriores);
+        dfs.eliminarConservandoIndice(df);
+        
+        if(dfs.obtenerCierre(df.obtenerDeterminante()).contiene(df.obtenerDeterminado()))
+            relacion = new Relacion(relacion.obtenerNombre(), relacion.obtenerAtributos(), dfs, relacion);
+        else
+            relacion = new Relacion(relacion.obtenerNombre(), relacion.obtenerAtributos(), dfs, 
+                    dfs.obtenerRecubrimientoMinimal(), obtenerClave());
+        return true;
+    }
+    
+    /* Consultores */
+    /**
+     * @return Devuelve la relación con las dependencias funcionales actuales.
+     */
+    public synchronized Relacion obtenerRelacion()
+    {
+        return relacion;
+    }
+    
+    /* una clave cualquiera de la relación actual */
+    private Descriptor obtenerClave()
+    {
+        return relacion.obtenerClavesCandidatas().iterator().next();
+    }
+    
+    /* copia las dependencias en un conjunto persistente (en tiempo constante si ya lo eran) */
+    private static DependenciasFuncionales copiar(final DependenciasFuncionales dfs)
+    {
+        if(dfs.obtenerFabrica() == FabricaAlmacenes.PERSISTENTE)
+            return new DependenciasFuncionales(dfs);
+        DependenciasFuncionales copia = new DependenciasFuncionales(FabricaAlmacenes.PERSISTENTE);
+        copia.insertar(dfs);
+        return copia;
+    }
+    
+    private Relacion relacion;
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Descompone una relación en 3FN mediante el algoritmo de síntesis de Bernstein, en una única
+ * pasada sobre el recubrimiento minimal:
+ * 1. Se agrupan las dependencias del recubrimiento minimal por determinante. Cada grupo
+ * X -> A1, X -> A2, ..., X -> An da lugar a una relación con atributos X u A1 u ... u An.
+ * 2. Se descartan las relaciones cuyos atributos están contenidos en los de otra relación.
+ * 3. Si ninguna relación contiene una clave mínima de la relación original, se añade una relación
+ * formada por una clave mínima.
+ * La descomposición obtenida preserva las dependencias, es de reunión sin pérdida, y todas las
+ * relaciones hijas están en 3FN, sin necesidad de descomponerlas de nuevo.
+ * @author victor
+ */
+public class SintesisFN3 {
+    public SintesisFN3(final Relacion r)
+    {
+        this.r = r;
+    }
+    
+    /**
+     * @return Devuelve la descomposición en 3FN de la relación, o null si la síntesis da lugar a una
+     * única relación (la relación no necesita descomponerse para estar en 3FN).
+     */
+    public Descomposicion descomponer()
+    {
+        List<Descriptor> atributos = new ArrayList<Descriptor>();
+        
+        /* una relación por cada determinante. (Las dependencias con el mismo determinante son
+        consecutivas en el recubrimiento) */
+        DependenciaFuncional anterior = null;
+        for(DependenciaFuncional df : r.obtenerRecubrimientoMinimal())
+        {
+            if((anterior == null) || !anterior.obtenerDeterminante().esIgual(df.obtenerDeterminante()))
+            {
+                Descriptor attrs = new Descriptor();
+                attrs.insertar(df.obtenerDeterminante());
+                atributos.add(attrs);
+            }
+            atributos.get(atributos.size() - 1).insertar(df.obtenerDeterminado());
+            anterior = df;
+        }
+        
+        /* descartar las relaciones contenidas en otras */
+        for(int i = 0; i < atributos.size(); ++i)
+        {
+            int j = 0;
+            while((j < atributos.size()) && ((i == j) || !atributos.get(i).esContenido(atributos.get(j))))
+                ++j;
+            if(j < atributos.size())
+                atributos.remove(i--);
+        }
+        
+        /* alguna relación debe contener una clave mínima */
+        int i = 0;
+        while((i < atributos.size()) && !r.esSuperClave(atributos.get(i)))
+            ++i;
+        if(i == atributos.size())
+        {
+            Descriptor clave = new Descriptor();
+            clave.insertar(r.obtenerClavesCandidatas().iterator().next());
+            atributos.add(clave);
+        }
+        
+        if(atributos.size() < 2)
+            return null;
+        /* las dependencias de cada relación son la proyección del recubrimiento minimal */
+        return new Descomposicion(r, atributos);
+    }
+    
+    private final Relacion r;
+}
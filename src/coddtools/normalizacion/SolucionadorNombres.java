@@ -42,4 +42,17 @@ public class SolucionadorNombres {
             hijos.insertar(padre + "." + Integer.toString(i));
         return hijos;
     }
+    
+    /**
+     * Obtiene el nombre de una relación descendiente de otra, si esta última fuese renombrada.
+     * e.g. renombrarDescendiente("R.1.2.1", "R.1.2", "S.2") es "S.2.1"
+     * @param nombre Es el nombre de la relación descendiente.
+     * @param ancestro Es el nombre de la relación ancestro (prefijo de nombre).
+     * @param nuevoAncestro Es el nuevo nombre de la relación ancestro.
+     */
+    public static String renombrarDescendiente(String nombre, String ancestro, String nuevoAncestro)
+    {
+        assert nombre.startsWith(ancestro);
+        return nuevoAncestro + nombre.substring(ancestro.length());
+    }
 }
@@ -0,0 +1,255 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import coddtools.util.Conjunto;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memoriza los árboles de descomposición recursiva (NodoDescomposicionRecursiva) de las relaciones
+ * ya descompuestas, indexados por su esquema canónico (EsquemaCanonico) y los criterios de
+ * descomposición. Si más adelante se descompone otra relación con el mismo esquema, aunque tenga otro
+ * nombre (e.g. R.1.2 y S.2.1), se reutiliza el árbol memorizado, renombrando sus relaciones con
+ * SolucionadorNombres; las relaciones renombradas comparten el análisis de las originales.
+ * Una misma tabla puede compartirse entre varias descomposiciones recursivas (incluso desde varios
+ * hilos), e.g. las de todas las relaciones de un catálogo.
+ * Como CacheCierres, la tabla está acotada: cuando se supera su capacidad se descarta el árbol usado
+ * hace más tiempo (LRU). Un árbol descartado simplemente se vuelve a generar si se necesita de nuevo.
+ * @author victor
+ */
+public class TablaDescomposiciones {
+    /**
+     * Crea una tabla con la capacidad por defecto.
+     */
+    public TablaDescomposiciones()
+    {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+    
+    /**
+     * Crea una tabla de descomposiciones.
+     * @param capacidad Es el número máximo de árboles memorizados (incluidos los subárboles). Si es 0,
+     * la tabla no memoriza ningún árbol.
+     */
+    public TablaDescomposiciones(int capacidad)
+    {
+        assert capacidad >= 0;
+        this.capacidad = capacidad;
+        nodos = new LinkedHashMap<Clave, NodoDescomposicionRecursiva>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, NodoDescomposicionRecursiva> eldest)
+            {
+                return size() > TablaDescomposiciones.this.capacidad;
+            }
+        };
+    }
+    
+    /**
+     * @return Devuelve el nodo raíz del árbol de descomposición recursiva de una relación. Si ya se
+     * descompuso una relación con el mismo esquema y los mismos criterios, se reutiliza su árbol; en otro
+     * caso, se genera (reutilizando los subárboles memorizados) y se memoriza.
+     * @see NodoDescomposicionRecursiva
+     */
+    NodoDescomposicionRecursiva obtenerNodo(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia)
+    {
+        NodoDescomposicionRecursiva nodo = buscar(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia);
+        if(nodo != null)
+            return nodo;
+        /* la descomposición se hace fuera de la sección crítica */
+        nodo = new NodoDescomposicionRecursiva(r, fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, this);
+        guardar(fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia, nodo);
+        return nodo;
+    }
+    
+    /**
+     * @return Devuelve el árbol memorizado para una relación con el mismo esquema que la indicada (con sus
+     * relaciones renombradas), o null si no hay ninguno.
+     */
+    NodoDescomposicionRecursiva buscar(Relacion r, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+            EstrategiaDescomposicion estrategia)
+    {
+        NodoDescomposicionRecursiva nodo;
+        synchronized(this)
+        {
+            nodo = nodos.get(new Clave(new EsquemaCanonico(r), fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia));
+            if(nodo == null)
+            {
+                fallos++;
+                return null;
+            }
+            aciertos++;
+        }
+        return renombrar(nodo, r);
+    }
+    
+    /**
+     * Memoriza el árbol de descomposición de la relación de un nodo.
+     */
+    void guardar(FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida, EstrategiaDescomposicion estrategia,
+            NodoDescomposicionRecursiva nodo)
+    {
+        Clave clave = new Clave(new EsquemaCanonico(nodo.obtenerRelacion()), fnDeseada, debeSerLegal, debeSerSinPerdida, estrategia);
+        synchronized(this)
+        {
+            if((capacidad > 0) && !nodos.containsKey(clave))
+                nodos.put(clave, nodo);
+        }
+    }
+    
+    /**
+     * Copia un árbol de descomposición, cambiando la relación de su raíz por otra con el mismo esquema,
+     * y renombrando las relaciones descendientes de acuerdo con el nombre de la nueva raíz.
+     */
+    private static NodoDescomposicionRecursiva renombrar(NodoDescomposicionRecursiva nodo, Relacion r)
+    {
+        Descomposicion d = nodo.obtenerDescomposicion();
+        if(nodo.obtenerRelacion() == r)
+            return nodo;
+        if(d == null)
+            return new NodoDescomposicionRecursiva(r, null, new Conjunto<NodoDescomposicionRecursiva>(), nodo.esProyeccionIncompleta());
+        
+        Map<Relacion, NodoDescomposicionRecursiva> hijosPorRelacion = new IdentityHashMap<Relacion, NodoDescomposicionRecursiva>();
+        for(NodoDescomposicionRecursiva hijo : nodo.obtenerNodosHijos())
+            hijosPorRelacion.put(hijo.obtenerRelacion(), hijo);
+        
+        String ancestro = nodo.obtenerRelacion().obtenerNombre();
+        Conjunto<Relacion> hijas = new Conjunto<Relacion>();
+        Conjunto<NodoDescomposicionRecursiva> hijos = new Conjunto<NodoDescomposicionRecursiva>();
+        for(Relacion hija : d.obtenerRelacionesHijas())
+        {
+            Relacion renombrada = hija.renombrar(SolucionadorNombres.renombrarDescendiente(hija.obtenerNombre(), ancestro, r.obtenerNombre()));
+            hijas.insertar(renombrada);
+            NodoDescomposicionRecursiva hijo = hijosPorRelacion.get(hija);
+            if(hijo != null)
+                hijos.insertar(renombrar(hijo, renombrada));
+        }
+        return new NodoDescomposicionRecursiva(r, new Descomposicion(r, hijas), hijos);
+    }
+    
+    /**
+     * Descarta todos los árboles memorizados. (Los contadores de aciertos y fallos se conservan)
+     */
+    public synchronized void vaciar()
+    {
+        nodos.clear();
+    }
+    
+    /* Consultores */
+    /**
+     * @return Devuelve el número de veces que se reutilizó un árbol memorizado.
+     */
+    public synchronized long obtenerAciertos()
+    {
+        return aciertos;
+    }
+    
+    /**
+     * @return Devuelve el número de veces que se buscó un árbol que no estaba memorizado.
+     */
+    public synchronized long obtenerFallos()
+    {
+        return fallos;
+    }
+    
+    /**
+     * @return Devuelve el número de árboles memorizados actualmente (incluidos los subárboles).
+     */
+    public synchronized int obtenerTamano()
+    {
+        return nodos.size();
+    }
+    
+    /**
+     * @return Devuelve el número máximo de árboles que pueden memorizarse.
+     */
+    public synchronized int obtenerCapacidad()
+    {
+        return capacidad;
+    }
+    
+    /**
+     * Cambia el número máximo de árboles memorizados. Si la nueva capacidad es menor que el número de
+     * árboles memorizados, se descartan los usados hace más tiempo.
+     */
+    public synchronized void establecerCapacidad(int capacidad)
+    {
+        assert capacidad >= 0;
+        this.capacidad = capacidad;
+        while(nodos.size() > capacidad)
+        {
+            nodos.remove(nodos.keySet().iterator().next());
+        }
+    }
+    
+    /* esquema canónico de la relación junto a los criterios de descomposición */
+    private static class Clave
+    {
+        Clave(EsquemaCanonico esquema, FormaNormal fnDeseada, boolean debeSerLegal, boolean debeSerSinPerdida,
+                EstrategiaDescomposicion estrategia)
+        {
+            this.esquema = esquema;
+            this.fnDeseada = fnDeseada;
+            this.debeSerLegal = debeSerLegal;
+            this.debeSerSinPerdida = debeSerSinPerdida;
+            this.estrategia = estrategia;
+        }
+        
+        @Override
+        public boolean equals(Object otra)
+        {
+            if(!(otra instanceof Clave))
+                return false;
+            Clave clave = (Clave)otra;
+            return esquema.equals(clave.esquema) && (fnDeseada == clave.fnDeseada) && (debeSerLegal == clave.debeSerLegal) && 
+                    (debeSerSinPerdida == clave.debeSerSinPerdida) && (estrategia == clave.estrategia);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            int hash = esquema.hashCode();
+            hash = 31 * hash + System.identityHashCode(fnDeseada);
+            hash = 31 * hash + System.identityHashCode(estrategia);
+            return 4 * hash + (debeSerLegal ? 2 : 0) + (debeSerSinPerdida ? 1 : 0);
+        }
+        
+        private final EsquemaCanonico esquema;
+        private final FormaNormal fnDeseada;
+        private final boolean debeSerLegal, debeSerSinPerdida;
+        private final EstrategiaDescomposicion estrategia;
+    }
+    
+    /**
+     * Es la capacidad por defecto de las tablas de descomposiciones (número de árboles).
+     */
+    public static final int CAPACIDAD_POR_DEFECTO = 4096;
+    
+    private int capacidad;
+    private long aciertos, fallos;
+    private final LinkedHashMap<Clave, NodoDescomposicionRecursiva> nodos;
+}
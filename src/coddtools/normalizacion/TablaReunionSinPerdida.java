@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comprueba si la descomposición de una relación R en R1, R2, ..., Rn es de reunión sin pérdida
+ * mediante el algoritmo de la tabla (chase), válido para cualquier número de relaciones hijas.
+ * La tabla tiene una fila por cada relación hija y una columna por cada atributo de R. En la fila i,
+ * la columna de un atributo de Ri contiene el símbolo distinguido; el resto de columnas contienen un
+ * símbolo propio de la fila. Después, mientras existan dos filas que coinciden en los símbolos del
+ * determinante X de alguna dependencia X -> A, se igualan sus símbolos en la columna A (si uno es el
+ * distinguido, ambos pasan a serlo). La descomposición es de reunión sin pérdida si y solo si alguna
+ * fila acaba con todos sus símbolos distinguidos.
+ * Las igualdades entre símbolos de cada columna se representan con una estructura union-find, y los
+ * símbolos distinguidos de cada fila con un descriptor compacto.
+ * @author victor
+ */
+public class TablaReunionSinPerdida {
+    /**
+     * @param atributos Son los atributos de la relación descompuesta.
+     * @param dfs Son las dependencias funcionales de la relación descompuesta.
+     * @param esquemas Son los atributos de cada una de las relaciones hijas.
+     */
+    public TablaReunionSinPerdida(final Descriptor atributos, final DependenciasFuncionales dfs, final List<Descriptor> esquemas)
+    {
+        universo = new UniversoAtributos(atributos);
+        todos = universo.obtenerTodos();
+        filas = esquemas.size();
+        
+        /* dependencias con un único atributo en el determinado */
+        int n = 0;
+        for(DependenciaFuncional df : dfs)
+            n += df.obtenerDeterminado().obtenerCardinal();
+        determinantes = new int[n][];
+        determinados = new int[n];
+        n = 0;
+        for(DependenciaFuncional df : dfs)
+        {
+            DescriptorCompacto determinante = universo.compactar(df.obtenerDeterminante());
+            int[] indices = new int[determinante.obtenerCardinal()];
+            int i = 0;
+            for(int atributo = determinante.siguiente(0); atributo >= 0; atributo = determinante.siguiente(atributo + 1))
+                indices[i++] = atributo;
+            for(Atributo atributo : df.obtenerDeterminado())
+            {
+                determinantes[n] = indices;
+                determinados[n++] = universo.obtenerIndice(atributo);
+            }
+        }
+        
+        /* símbolos: en cada columna, el símbolo 0 es el distinguido y el símbolo i + 1 es el
+        propio de la fila i */
+        padres = new int[universo.obtenerTamano()][filas + 1];
+        for(int[] columna : padres)
+            for(int simbolo = 0; simbolo != columna.length; ++simbolo)
+                columna[simbolo] = simbolo;
+        distinguidos = new DescriptorCompacto[filas];
+        for(int i = 0; i != filas; ++i)
+        {
+            distinguidos[i] = universo.compactar(esquemas.get(i));
+            for(int columna = distinguidos[i].siguiente(0); columna >= 0; columna = distinguidos[i].siguiente(columna + 1))
+                padres[columna][i + 1] = 0;
+            completa |= distinguidos[i].esIgual(todos);
+        }
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si la descomposición es de reunión sin pérdida.
+     */
+    public boolean esSinPerdida()
+    {
+        if(completa)
+            return true;
+        
+        Map<Clave, Integer> grupos = new HashMap<Clave, Integer>();
+        boolean cambios = true;
+        while(cambios)
+        {
+            cambios = false;
+            for(int df = 0; df != determinantes.length; ++df)
+            {
+                /* agrupamos las filas según sus símbolos en el determinante */
+                grupos.clear();
+                int[] determinante = determinantes[df];
+                int columna = determinados[df];
+                for(int fila = 0; fila != filas; ++fila)
+                {
+                    int[] simbolos = new int[determinante.length];
+                    for(int j = 0; j != determinante.length; ++j)
+                        simbolos[j] = buscar(determinante[j], fila + 1);
+                    Integer otra = grupos.get(new Clave(simbolos));
+                    if(otra == null)
+                        grupos.put(new Clave(simbolos), fila);
+                    else if(unir(columna, otra + 1, fila + 1))
+                    {
+                        cambios = true;
+                        if(completa)
+                            return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /* devuelve el representante del símbolo en la columna indicada */
+    private int buscar(int columna, int simbolo)
+    {
+        int[] padre = padres[columna];
+        int raiz = simbolo;
+        while(padre[raiz] != raiz)
+            raiz = padre[raiz];
+        while(padre[simbolo] != raiz)
+        {
+            int siguiente = padre[simbolo];
+            padre[simbolo] = raiz;
+            simbolo = siguiente;
+        }
+        return raiz;
+    }
+    
+    /**
+     * Iguala dos símbolos de una columna. Si alguno de ellos es el distinguido, el representante será
+     * el distinguido, y las filas con el otro símbolo pasan a tener el distinguido en esa columna (si
+     * alguna de ellas queda con todos sus símbolos distinguidos, se anota en completa).
+     * @return Devuelve un valor booleano indicando si los símbolos no eran ya iguales.
+     */
+    private boolean unir(int columna, int a, int b)
+    {
+        a = buscar(columna, a);
+        b = buscar(columna, b);
+        if(a == b)
+            return false;
+        if(b == 0)
+        {
+            b = a;
+            a = 0;
+        }
+        padres[columna][b] = a;
+        if(a == 0)
+            for(int fila = 0; fila != filas; ++fila)
+                if(!distinguidos[fila].contiene(columna) && (buscar(columna, fila + 1) == 0))
+                {
+                    distinguidos[fila].insertar(columna);
+                    completa |= distinguidos[fila].esIgual(todos);
+                }
+        return true;
+    }
+    
+    /* símbolos de una fila en las columnas de un determinante */
+    private static class Clave
+    {
+        Clave(final int[] simbolos)
+        {
+            this.simbolos = simbolos;
+        }
+        
+        @Override
+        public boolean equals(Object otra)
+        {
+            return (otra instanceof Clave) && Arrays.equals(simbolos, ((Clave)otra).simbolos);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Arrays.hashCode(simbolos);
+        }
+        
+        private final int[] simbolos;
+    }
+    
+    private final UniversoAtributos universo;
+    private final DescriptorCompacto todos;
+    private final int filas;
+    private final int[][] determinantes; /* dependencias con un único atributo en el determinado */
+    private final int[] determinados;
+    private final int[][] padres; /* union-find de los símbolos de cada columna */
+    private final DescriptorCompacto[] distinguidos; /* columnas con el símbolo distinguido en cada fila */
+    private boolean completa; /* indica si alguna fila tiene todos sus símbolos distinguidos */
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.normalizacion;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Representa el universo de atributos de un esquema: asigna a cada atributo un índice
+ * denso (0, 1, 2, ..., n-1), de forma que los descriptores del esquema puedan representarse
+ * como vectores de bits (DescriptorCompacto).
+ * Los índices se asignan siguiendo el orden de los atributos, luego recorrer un descriptor
+ * compacto por índices crecientes equivale a recorrer el descriptor original en orden.
+ * Un universo es inmutable una vez construido.
+ * @author victor
+ */
+public class UniversoAtributos {
+    /**
+     * Construye el universo formado por los atributos del descriptor indicado.
+     * @param atributos Son los atributos del esquema.
+     */
+    public UniversoAtributos(final Descriptor atributos)
+    {
+        this.atributos = new Atributo[atributos.obtenerCardinal()];
+        this.indices = new HashMap<Atributo, Integer>();
+        int i = 0;
+        for(Atributo atributo : atributos)
+        {
+            this.atributos[i] = atributo;
+            this.indices.put(atributo, i);
+            ++i;
+        }
+    }
+    
+    /**
+     * @return Devuelve el número de atributos de este universo.
+     */
+    public int obtenerTamano()
+    {
+        return atributos.length;
+    }
+    
+    /**
+     * @return Devuelve el número de palabras de 64 bits necesarias para representar
+     * un descriptor de este universo.
+     */
+    public int obtenerNumeroPalabras()
+    {
+        return (atributos.length + 63) >>> 6;
+    }
+    
+    /**
+     * @return Devuelve el índice asociado al atributo, o -1 si el atributo no
+     * pertenece a este universo.
+     */
+    public int obtenerIndice(final Atributo atributo)
+    {
+        Integer indice = indices.get(atributo);
+        return (indice != null) ? indice : -1;
+    }
+    
+    /**
+     * @return Devuelve el atributo cuyo índice es el indicado.
+     */
+    public Atributo obtenerAtributo(int indice)
+    {
+        return atributos[indice];
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si el atributo pertenece a este universo.
+     */
+    public boolean contiene(final Atributo atributo)
+    {
+        return indices.containsKey(atributo);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si todos los atributos del descriptor
+     * pertenecen a este universo.
+     */
+    public boolean contiene(final Descriptor descriptor)
+    {
+        for(Atributo atributo : descriptor)
+            if(!contiene(atributo))
+                return false;
+        return true;
+    }
+    
+    /**
+     * @return Devuelve el descriptor compacto formado por todos los atributos de este universo.
+     */
+    public DescriptorCompacto obtenerTodos()
+    {
+        DescriptorCompacto todos = new DescriptorCompacto(this);
+        for(int i = 0; i != atributos.length; ++i)
+            todos.insertar(i);
+        return todos;
+    }
+    
+    /**
+     * Convierte un descriptor a su representación compacta en este universo.
+     * @throws IllegalArgumentException Si algún atributo del descriptor no pertenece a este
+     * universo.
+     */
+    public DescriptorCompacto compactar(final Descriptor descriptor) throws IllegalArgumentException
+    {
+        return new DescriptorCompacto(this, descriptor);
+    }
+    
+    private final Atributo[] atributos; /* atributo asociado a cada índice */
+    private final Map<Atributo, Integer> indices; /* índice asociado a cada atributo */
+}
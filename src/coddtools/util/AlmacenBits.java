@@ -0,0 +1,262 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Almacena un subconjunto de un universo de elementos (Universo) como un vector de bits: el bit
+ * i-ésimo indica si el elemento con índice i pertenece al conjunto. Las operaciones entre dos
+ * almacenes del mismo universo se resuelven con operaciones lógicas sobre palabras de 64 bits.
+ * Los elementos se recorren en el orden de sus índices en el universo (que no tiene por qué coincidir
+ * con su orden natural). No se admiten elementos que no pertenezcan al universo.
+ * @author victor
+ */
+public class AlmacenBits<E> extends AbstractSet<E> {
+    /**
+     * @param universo Es el universo de los elementos del conjunto.
+     */
+    public AlmacenBits(final Universo<E> universo)
+    {
+        this.universo = universo;
+        palabras = new long[1];
+    }
+    
+    /**
+     * @return Devuelve el universo de los elementos de este conjunto.
+     */
+    public Universo<E> obtenerUniverso()
+    {
+        return universo;
+    }
+    
+    @Override
+    public int size()
+    {
+        return tamano;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o)
+    {
+        int i;
+        try
+        {
+            i = universo.obtenerIndice((E)o);
+        }
+        catch(ClassCastException e)
+        {
+            return false;
+        }
+        return (i >= 0) && contiene(i);
+    }
+    
+    @Override
+    public boolean add(E e)
+    {
+        int i = universo.obtenerIndice(e);
+        if(i < 0)
+            throw new IllegalArgumentException("el elemento no pertenece al universo: " + e);
+        if(contiene(i))
+            return false;
+        if((i >>> 6) >= palabras.length)
+            palabras = Arrays.copyOf(palabras, Math.max((i >>> 6) + 1, 2 * palabras.length));
+        palabras[i >>> 6] |= 1L << i;
+        ++tamano;
+        ++modificaciones;
+        return true;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o)
+    {
+        if(!contains(o))
+            return false;
+        int i = universo.obtenerIndice((E)o);
+        palabras[i >>> 6] &= ~(1L << i);
+        --tamano;
+        ++modificaciones;
+        return true;
+    }
+    
+    @Override
+    public void clear()
+    {
+        Arrays.fill(palabras, 0);
+        tamano = 0;
+        ++modificaciones;
+    }
+    
+    @Override
+    public boolean containsAll(Collection<?> c)
+    {
+        AlmacenBits<?> otro = mismoUniverso(c);
+        if(otro == null)
+            return super.containsAll(c);
+        for(int p = 0; p != otro.palabras.length; ++p)
+            if((otro.palabras[p] & ~palabra(p)) != 0)
+                return false;
+        return true;
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends E> c)
+    {
+        AlmacenBits<?> otro = mismoUniverso(c);
+        if(otro == null)
+            return super.addAll(c);
+        if(otro.palabras.length > palabras.length)
+            palabras = Arrays.copyOf(palabras, otro.palabras.length);
+        for(int p = 0; p != otro.palabras.length; ++p)
+            palabras[p] |= otro.palabras[p];
+        return recontar();
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        AlmacenBits<?> otro = mismoUniverso(c);
+        if(otro == null)
+            return super.retainAll(c);
+        for(int p = 0; p != palabras.length; ++p)
+            palabras[p] &= otro.palabra(p);
+        return recontar();
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        AlmacenBits<?> otro = mismoUniverso(c);
+        if(otro == null)
+        {
+            /* AbstractSet.removeAll recorre este conjunto si es menor que c, y usa c.contains */
+            boolean modificado = false;
+            for(Object o : c)
+                modificado |= remove(o);
+            return modificado;
+        }
+        for(int p = 0; p != palabras.length; ++p)
+            palabras[p] &= ~otro.palabra(p);
+        return recontar();
+    }
+    
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext()
+            {
+                return siguiente >= 0;
+            }
+            
+            @Override
+            public E next()
+            {
+                if(esperadas != modificaciones)
+                    throw new ConcurrentModificationException();
+                if(siguiente < 0)
+                    throw new NoSuchElementException();
+                ultimo = siguiente;
+                siguiente = buscarSiguiente(siguiente + 1);
+                return universo.obtenerElemento(ultimo);
+            }
+            
+            @Override
+            public void remove()
+            {
+                if(esperadas != modificaciones)
+                    throw new ConcurrentModificationException();
+                if(ultimo < 0)
+                    throw new IllegalStateException();
+                palabras[ultimo >>> 6] &= ~(1L << ultimo);
+                --tamano;
+                esperadas = ++modificaciones;
+                ultimo = -1;
+            }
+            
+            private int siguiente = buscarSiguiente(0), ultimo = -1;
+            private int esperadas = modificaciones;
+        };
+    }
+    
+    private boolean contiene(int i)
+    {
+        return ((i >>> 6) < palabras.length) && ((palabras[i >>> 6] & (1L << i)) != 0);
+    }
+    
+    private long palabra(int p)
+    {
+        return (p < palabras.length) ? palabras[p] : 0;
+    }
+    
+    /* índice del siguiente elemento del conjunto a partir de i (incluido), o -1 si no hay más */
+    private int buscarSiguiente(int i)
+    {
+        int p = i >>> 6;
+        if(p >= palabras.length)
+            return -1;
+        long bits = palabras[p] & (-1L << i);
+        while(true)
+        {
+            if(bits != 0)
+                return (p << 6) + Long.numberOfTrailingZeros(bits);
+            if(++p == palabras.length)
+                return -1;
+            bits = palabras[p];
+        }
+    }
+    
+    /* actualiza el tamaño tras una operación sobre palabras completas */
+    private boolean recontar()
+    {
+        int nuevoTamano = 0;
+        for(long palabra : palabras)
+            nuevoTamano += Long.bitCount(palabra);
+        boolean modificado = nuevoTamano != tamano;
+        tamano = nuevoTamano;
+        if(modificado)
+            ++modificaciones;
+        return modificado;
+    }
+    
+    private AlmacenBits<?> mismoUniverso(Collection<?> c)
+    {
+        return ((c instanceof AlmacenBits) && (((AlmacenBits<?>)c).universo == universo)) ? (AlmacenBits<?>)c : null;
+    }
+    
+    private final Universo<E> universo;
+    private long[] palabras;
+    private int tamano;
+    private int modificaciones; /* número de modificaciones, para detectar las hechas durante una
+    iteración */
+}
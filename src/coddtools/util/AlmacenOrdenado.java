@@ -0,0 +1,298 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Almacena los elementos de un conjunto en un array ordenado (según su orden natural), sin nodos
+ * intermedios. Las búsquedas son binarias, y las operaciones entre dos almacenes de este tipo (unión,
+ * intersección, diferencia, inclusión) se resuelven recorriendo ambos arrays a la vez, en tiempo
+ * lineal. Insertar un elemento mayor que todos los del conjunto no requiere desplazar ninguno.
+ * Es adecuado para conjuntos pequeños o que se construyen en orden, como los descriptores.
+ * El orden de iteración es el mismo que el de un TreeSet.
+ * @author victor
+ */
+public class AlmacenOrdenado<E> extends AbstractSet<E> {
+    public AlmacenOrdenado()
+    {
+        elementos = new Object[CAPACIDAD_INICIAL];
+    }
+    
+    @Override
+    public int size()
+    {
+        return tamano;
+    }
+    
+    @Override
+    public boolean contains(Object o)
+    {
+        return buscar(o) >= 0;
+    }
+    
+    @Override
+    public boolean add(E e)
+    {
+        if(e == null)
+            throw new NullPointerException();
+        int i;
+        if((tamano == 0) || (comparar(elementos[tamano - 1], e) < 0))
+            i = tamano; /* caso frecuente: se inserta en orden */
+        else if((i = buscar(e)) >= 0)
+            return false;
+        else
+            i = -(i + 1);
+        asegurarCapacidad(tamano + 1);
+        System.arraycopy(elementos, i, elementos, i + 1, tamano - i);
+        elementos[i] = e;
+        ++tamano;
+        ++modificaciones;
+        return true;
+    }
+    
+    @Override
+    public boolean remove(Object o)
+    {
+        int i = buscar(o);
+        if(i < 0)
+            return false;
+        eliminarEn(i);
+        return true;
+    }
+    
+    @Override
+    public void clear()
+    {
+        Arrays.fill(elementos, 0, tamano, null);
+        tamano = 0;
+        ++modificaciones;
+    }
+    
+    @Override
+    public boolean containsAll(Collection<?> c)
+    {
+        if(!(c instanceof AlmacenOrdenado))
+            return super.containsAll(c);
+        AlmacenOrdenado<?> otro = (AlmacenOrdenado<?>)c;
+        if(otro.tamano > tamano)
+            return false;
+        int i = 0;
+        for(int j = 0; j != otro.tamano; ++j)
+        {
+            while((i < tamano) && (comparar(elementos[i], otro.elementos[j]) < 0))
+                ++i;
+            if((i == tamano) || (comparar(elementos[i], otro.elementos[j]) != 0))
+                return false;
+            ++i;
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends E> c)
+    {
+        if(!(c instanceof AlmacenOrdenado))
+            return super.addAll(c);
+        AlmacenOrdenado<?> otro = (AlmacenOrdenado<?>)c;
+        /* contar los elementos nuevos, y mezclar ambos arrays desde el final, sin array auxiliar */
+        int nuevos = 0;
+        int i = 0, j = 0;
+        while(j < otro.tamano)
+        {
+            int r = (i < tamano) ? comparar(elementos[i], otro.elementos[j]) : 1;
+            if(r <= 0)
+            {
+                ++i;
+                if(r == 0)
+                    ++j;
+            }
+            else
+            {
+                ++nuevos;
+                ++j;
+            }
+        }
+        if(nuevos == 0)
+            return false;
+        asegurarCapacidad(tamano + nuevos);
+        i = tamano - 1;
+        j = otro.tamano - 1;
+        for(int k = tamano + nuevos - 1; j >= 0; --k)
+        {
+            int r = (i >= 0) ? comparar(elementos[i], otro.elementos[j]) : -1;
+            if(r > 0)
+                elementos[k] = elementos[i--];
+            else
+            {
+                elementos[k] = otro.elementos[j--];
+                if(r == 0)
+                    --i;
+            }
+        }
+        tamano += nuevos;
+        ++modificaciones;
+        return true;
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        return filtrar(c, true);
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        return filtrar(c, false);
+    }
+    
+    /* conserva los elementos que están (o que no están) en la colección indicada */
+    private boolean filtrar(Collection<?> c, boolean conservarComunes)
+    {
+        int k = 0;
+        if(c instanceof AlmacenOrdenado)
+        {
+            AlmacenOrdenado<?> otro = (AlmacenOrdenado<?>)c;
+            int j = 0;
+            for(int i = 0; i != tamano; ++i)
+            {
+                while((j < otro.tamano) && (comparar(otro.elementos[j], elementos[i]) < 0))
+                    ++j;
+                boolean comun = (j < otro.tamano) && (comparar(otro.elementos[j], elementos[i]) == 0);
+                if(comun == conservarComunes)
+                    elementos[k++] = elementos[i];
+            }
+        }
+        else
+        {
+            for(int i = 0; i != tamano; ++i)
+                if(c.contains(elementos[i]) == conservarComunes)
+                    elementos[k++] = elementos[i];
+        }
+        if(k == tamano)
+            return false;
+        Arrays.fill(elementos, k, tamano, null);
+        tamano = k;
+        ++modificaciones;
+        return true;
+    }
+    
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext()
+            {
+                return siguiente < tamano;
+            }
+            
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next()
+            {
+                comprobarModificaciones();
+                if(siguiente >= tamano)
+                    throw new NoSuchElementException();
+                ultimo = siguiente;
+                return (E)elementos[siguiente++];
+            }
+            
+            @Override
+            public void remove()
+            {
+                comprobarModificaciones();
+                if(ultimo < 0)
+                    throw new IllegalStateException();
+                eliminarEn(ultimo);
+                siguiente = ultimo;
+                ultimo = -1;
+                esperadas = modificaciones;
+            }
+            
+            private void comprobarModificaciones()
+            {
+                if(esperadas != modificaciones)
+                    throw new ConcurrentModificationException();
+            }
+            
+            private int siguiente = 0, ultimo = -1;
+            private int esperadas = modificaciones;
+        };
+    }
+    
+    /**
+     * @return Devuelve la posición del elemento en el array, o -(p + 1) si no está, siendo p la
+     * posición en la que debería insertarse.
+     */
+    private int buscar(Object o)
+    {
+        int inferior = 0, superior = tamano - 1;
+        while(inferior <= superior)
+        {
+            int medio = (inferior + superior) >>> 1;
+            int r = comparar(elementos[medio], o);
+            if(r < 0)
+                inferior = medio + 1;
+            else if(r > 0)
+                superior = medio - 1;
+            else
+                return medio;
+        }
+        return -(inferior + 1);
+    }
+    
+    private void eliminarEn(int i)
+    {
+        System.arraycopy(elementos, i + 1, elementos, i, tamano - i - 1);
+        elementos[--tamano] = null;
+        ++modificaciones;
+    }
+    
+    private void asegurarCapacidad(int capacidad)
+    {
+        if(capacidad > elementos.length)
+            elementos = Arrays.copyOf(elementos, Math.max(capacidad, 2 * elementos.length));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static int comparar(Object a, Object b)
+    {
+        return ((Comparable<Object>)a).compareTo(b);
+    }
+    
+    private static final int CAPACIDAD_INICIAL = 4;
+    
+    private Object[] elementos; /* los elementos en orden creciente, en las posiciones [0, tamano) */
+    private int tamano;
+    private int modificaciones; /* número de modificaciones, para detectar las hechas durante una
+    iteración */
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Almacena los elementos de un conjunto en un ConjuntoPersistente. Cada modificación sustituye el
+ * conjunto persistente por uno nuevo, que comparte con el anterior los nodos que no cambian, luego
+ * insertar o eliminar un elemento cuesta O(log n), y copiar el almacén (copiar()) cuesta O(1): la
+ * copia y el original comparten los elementos hasta que alguno de los dos se modifica.
+ * Las operaciones entre dos almacenes de este tipo se resuelven con las del conjunto persistente.
+ * El orden de iteración es el mismo que el de un TreeSet. Los iteradores recorren los elementos que
+ * había al crearlos, aunque el almacén se modifique después.
+ * @author victor
+ */
+final class AlmacenPersistente<E> extends AbstractSet<E> {
+    AlmacenPersistente()
+    {
+        this(ConjuntoPersistente.<E>vacio());
+    }
+    
+    private AlmacenPersistente(final ConjuntoPersistente<E> conjunto)
+    {
+        this.conjunto = conjunto;
+    }
+    
+    /**
+     * @return Devuelve un almacén con los mismos elementos que este, que los comparte con él.
+     */
+    AlmacenPersistente<E> copiar()
+    {
+        return new AlmacenPersistente<E>(conjunto);
+    }
+    
+    @Override
+    public int size()
+    {
+        return conjunto.size();
+    }
+    
+    @Override
+    public boolean contains(Object o)
+    {
+        return conjunto.contains(o);
+    }
+    
+    @Override
+    public boolean add(E e)
+    {
+        return asignar(conjunto.insertar(e));
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o)
+    {
+        return asignar(conjunto.eliminar((E)o));
+    }
+    
+    @Override
+    public void clear()
+    {
+        conjunto = ConjuntoPersistente.vacio();
+    }
+    
+    @Override
+    public boolean containsAll(Collection<?> c)
+    {
+        if(c instanceof AlmacenPersistente)
+            return conjunto.contiene(((AlmacenPersistente<?>)c).conjunto);
+        return conjunto.containsAll(c);
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends E> c)
+    {
+        if(c instanceof AlmacenPersistente)
+            return asignar(conjunto.union(((AlmacenPersistente<? extends E>)c).conjunto));
+        return asignar(conjunto.union(ConjuntoPersistente.<E>de(c)));
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        if(c instanceof AlmacenPersistente)
+            return asignar(conjunto.interseccion(((AlmacenPersistente<?>)c).conjunto));
+        return super.retainAll(c);
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        if(c instanceof AlmacenPersistente)
+            return asignar(conjunto.diferencia(((AlmacenPersistente<?>)c).conjunto));
+        return super.removeAll(c);
+    }
+    
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext()
+            {
+                return it.hasNext();
+            }
+            
+            @Override
+            public E next()
+            {
+                return ultimo = it.next();
+            }
+            
+            @Override
+            public void remove()
+            {
+                if(ultimo == null)
+                    throw new IllegalStateException();
+                AlmacenPersistente.this.remove(ultimo);
+                ultimo = null;
+            }
+            
+            private final Iterator<E> it = conjunto.iterator();
+            private E ultimo;
+        };
+    }
+    
+    /* sustituye el conjunto persistente por el indicado */
+    private boolean asignar(final ConjuntoPersistente<E> nuevo)
+    {
+        if(nuevo == conjunto)
+            return false;
+        conjunto = nuevo;
+        return true;
+    }
+    
+    private ConjuntoPersistente<E> conjunto;
+}
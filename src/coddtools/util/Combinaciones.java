@@ -27,93 +27,82 @@ package coddtools.util;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+/* clase auxiliar que representa el iterador para iterar sobre las combinaciones del conjunto.
+Recorre los índices de las combinaciones con un MotorCombinaciones. Si se le indica un conjunto
+destino, devuelve siempre ese conjunto, actualizando solo los elementos que cambian de una
+combinación a la siguiente.
+*/
 class IteradorCombinaciones<E> implements Iterator<Conjunto<E>>
 {
     public IteradorCombinaciones(final Conjunto<E> elementos, int tamanoCombinacion)
     {
-        this.tamanoCombinacion = tamanoCombinacion;
-        this.elementos = elementos;
-        
-        if(!elementos.esVacio())
-        {
-            subconjuntoElementos = new Conjunto<E>();
-            subconjuntoElementos.insertar(elementos);
-            pivote = subconjuntoElementos.iterator().next();
-            subconjuntoElementos.eliminar(pivote);
-            if(tamanoCombinacion > 1)
-            {
-                Conjunto<E> aux = new Conjunto<E>();
-                aux.insertar(subconjuntoElementos);
-                it = new IteradorCombinaciones(aux, tamanoCombinacion - 1);
-            }
-        }
+        this(elementos, tamanoCombinacion, null);
     }
-            
+    
+    @SuppressWarnings("unchecked")
+    public IteradorCombinaciones(final Conjunto<E> elementos, int tamanoCombinacion, final Conjunto<E> destino)
+    {
+        this.elementos = (E[])new Object[elementos.obtenerCardinal()];
+        int i = 0;
+        for(E elemento : elementos)
+            this.elementos[i++] = elemento;
+        motor = new MotorCombinaciones(this.elementos.length, tamanoCombinacion);
+        anteriores = new int[tamanoCombinacion];
+        this.destino = destino;
+        if(destino != null)
+            destino.eliminarTodo();
+        haySiguiente = !elementos.esVacio() && motor.avanzar();
+    }
+    
     @Override
     public boolean hasNext() {
-        if(!elementos.esVacio())
-        {
-            if(tamanoCombinacion > 1)
-                return (subconjuntoElementos.obtenerCardinal() >= tamanoCombinacion) || it.hasNext();
-            return (pivote != null);
-        }       
-        return false;
+        return haySiguiente;
     }
 
     @Override
     public Conjunto<E> next() {
-        if(!elementos.esVacio())
+        if(!haySiguiente)
+            throw new NoSuchElementException();
+        int[] indices = motor.obtenerIndices();
+        Conjunto<E> combinacion;
+        if(destino == null)
         {
-            if(tamanoCombinacion > 1)
-            {
-                if((subconjuntoElementos.obtenerCardinal() >= tamanoCombinacion) || it.hasNext())
-                {
-                    if((subconjuntoElementos.obtenerCardinal() >= tamanoCombinacion) && (!it.hasNext()))
-                    {
-                        pivote = subconjuntoElementos.iterator().next();
-                        subconjuntoElementos.eliminar(pivote);
-                        Conjunto<E> aux = new Conjunto<E>();
-                        aux.insertar(subconjuntoElementos);
-                        it = new IteradorCombinaciones(aux, tamanoCombinacion - 1);
-                    }
-                    
-                    Conjunto<E> aux = it.next(); /* obtenemos una combinación del subconjunto */
-                    aux.insertar(pivote); /* añadimos el pivote para formar una combinación de este
-                    conjunto
-                    */
-                    return aux;
-                }
-            }
-            else 
+            combinacion = new Conjunto<E>(FabricaAlmacenes.ARREGLO_ORDENADO);
+            for(int indice : indices)
+                combinacion.insertar(elementos[indice]);
+        }
+        else
+        {
+            /* sustituir en el destino solo los elementos de las posiciones que han cambiado */
+            combinacion = destino;
+            int desde = motor.obtenerPrimerCambio();
+            if(!primera)
+                for(int j = desde; j < indices.length; ++j)
+                    destino.eliminar(elementos[anteriores[j]]);
+            for(int j = desde; j < indices.length; ++j)
             {
-                if(pivote != null)
-                {
-                    Conjunto<E> aux = new Conjunto<E>();
-                    aux.insertar(pivote);
-                    if(!subconjuntoElementos.esVacio())
-                    {
-                        pivote = subconjuntoElementos.iterator().next();
-                        subconjuntoElementos.eliminar(pivote);
-                        return aux;
-                    }
-                    pivote = null;
-                    return aux;
-                }
+                destino.insertar(elementos[indices[j]]);
+                anteriores[j] = indices[j];
             }
+            primera = false;
         }
-        throw new NoSuchElementException();
+        haySiguiente = motor.avanzar();
+        return combinacion;
     }
     
-    private Conjunto<E> elementos;
-    private int tamanoCombinacion; /* es el tamaño de la combinación */
-    private E pivote; /* es un elemento del conjunto, se irá desplazando hacía la derecha */
-    private Conjunto<E> subconjuntoElementos; /* es un subconjunto del conjunto de elementos que posee
-    todos los elementos a excepción de todos aquellos que hayan sido pivotes
-    */
-    private IteradorCombinaciones<E> it; /* Es un iterador del conjunto de combinaciones del subconjunto
-    de elementos
-    */
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
     
+    private final E[] elementos; /* los elementos del conjunto, en el orden en el que se recorren */
+    private final MotorCombinaciones motor;
+    private final Conjunto<E> destino; /* conjunto en el que se devuelven las combinaciones, o null si
+    se devuelve un conjunto nuevo cada vez */
+    private final int[] anteriores; /* índices de la combinación que contiene el destino */
+    private boolean primera = true;
+    private boolean haySiguiente;
 }
 
 
@@ -123,6 +112,8 @@ class IteradorCombinaciones<E> implements Iterator<Conjunto<E>>
  * específico de elementos.
  * Son combinaciones de un conjunto de elementos. Variaciones donde no importa el orden y no hay
  * repeticiones de elementos, tomados de n en n.
+ * Las combinaciones se generan en orden lexicográfico, según el orden en el que se recorren los
+ * elementos del conjunto.
  * @author victor
  */
 public class Combinaciones<E> implements Iterable<Conjunto<E>> {
@@ -149,6 +140,17 @@ public class Combinaciones<E> implements Iterable<Conjunto<E>> {
         return new IteradorCombinaciones<E>(elementos, tamanoCombinacion);
     }
     
+    /**
+     * @return Devuelve un iterador sobre las combinaciones que, en lugar de crear un conjunto por cada
+     * combinación, devuelve siempre el conjunto destino indicado, cuyo contenido sustituye por la
+     * combinación actual (solo inserta y elimina los elementos que cambian). El destino no debe
+     * modificarse mientras dure la iteración.
+     */
+    public Iterator<Conjunto<E>> iterator(final Conjunto<E> destino)
+    {
+        return new IteradorCombinaciones<E>(elementos, tamanoCombinacion, destino);
+    }
+    
     /**
      * 
      * @return Devuelve el número de combinaciones sobre el conjunto (formando grupos de n
@@ -27,7 +27,6 @@ package coddtools.util;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * Representa un conjunto de elementos de un tipo específico.
@@ -39,11 +38,41 @@ public class Conjunto<E> implements Iterable<E>
 {
     /* Constructores */
     /**
-     * Construir un conjunto vacío.
+     * Construir un conjunto vacío, cuyos elementos se guardan en un árbol (FabricaAlmacenes.ARBOL).
      */
     public Conjunto()
     {
-        elementos = new TreeSet<E>();
+        this(FabricaAlmacenes.ARBOL);
+    }
+    
+    /**
+     * Construir un conjunto vacío, cuyos elementos se guardan en un almacén creado por la fábrica
+     * indicada. Los conjuntos que resulten de operar con este conjunto (unión, intersección, ...) usarán
+     * la misma fábrica.
+     */
+    public Conjunto(final FabricaAlmacenes fabrica)
+    {
+        this.fabrica = fabrica;
+        elementos = fabrica.crear();
+    }
+    
+    /**
+     * Construir un conjunto con los mismos elementos que otro, guardados en un almacén creado por la
+     * misma fábrica. Si la fábrica es FabricaAlmacenes.PERSISTENTE, la copia se obtiene en tiempo
+     * constante y comparte los elementos con el otro conjunto hasta que alguno de los dos se modifica.
+     */
+    public Conjunto(final Conjunto<E> otro)
+    {
+        fabrica = otro.fabrica;
+        elementos = fabrica.copiar(otro.elementos);
+    }
+    
+    /**
+     * @return Devuelve la fábrica con la que se creó el almacén de este conjunto.
+     */
+    public final FabricaAlmacenes obtenerFabrica()
+    {
+        return fabrica;
     }
     
     /* Operaciones básicas */
@@ -56,7 +85,7 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final boolean insertar(final E elemento)
     {
-        return elementos.add(elemento);
+        return notificar(elementos.add(elemento));
     }
     
     /**
@@ -68,7 +97,7 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final boolean insertar(final Conjunto<? extends E> otro)
     {
-        return elementos.addAll(otro.elementos);
+        return notificar(elementos.addAll(otro.elementos));
     }
     
     /**
@@ -79,7 +108,7 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final boolean eliminar(final E elemento)
     {
-        return elementos.remove(elemento);
+        return notificar(elementos.remove(elemento));
     }
     
     /**
@@ -89,7 +118,7 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final boolean insertar(final Collection<? extends E> elementos)
     {
-        return this.elementos.addAll(elementos);
+        return notificar(this.elementos.addAll(elementos));
     }
     
     /**
@@ -101,7 +130,40 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final boolean eliminar(final Conjunto<? extends E> otro)
     {
-        return elementos.removeAll(otro.elementos);
+        return notificar(elementos.removeAll(otro.elementos));
+    }
+    
+    /**
+     * Conserva solo los elementos de este conjunto que también están en el otro conjunto (este conjunto
+     * pasa a ser la intersección de ambos), sin crear conjuntos intermedios.
+     * @return Devuelve este mismo conjunto.
+     */
+    public final Conjunto<E> retener(final Conjunto<? extends E> otro)
+    {
+        notificar(elementos.retainAll(otro.elementos));
+        return this;
+    }
+    
+    /**
+     * Inserta en este conjunto los elementos del otro conjunto (este conjunto pasa a ser la unión de
+     * ambos). Es como insertar(otro), pero devuelve este conjunto para poder encadenar operaciones.
+     * @return Devuelve este mismo conjunto.
+     */
+    public final Conjunto<E> unirCon(final Conjunto<? extends E> otro)
+    {
+        insertar(otro);
+        return this;
+    }
+    
+    /**
+     * Elimina de este conjunto los elementos del otro conjunto (este conjunto pasa a ser la diferencia
+     * de ambos). Es como eliminar(otro), pero devuelve este conjunto para poder encadenar operaciones.
+     * @return Devuelve este mismo conjunto.
+     */
+    public final Conjunto<E> restar(final Conjunto<? extends E> otro)
+    {
+        eliminar(otro);
+        return this;
     }
     
     /**
@@ -110,7 +172,26 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final void eliminarTodo()
     {
+        boolean vacio = elementos.isEmpty();
         elementos.clear();
+        notificar(!vacio);
+    }
+    
+    /**
+     * Es invocado cada vez que el conjunto se modifica (se inserta o se elimina algún elemento).
+     * Las subclases que guarden información derivada de los elementos del conjunto pueden
+     * redefinirlo para invalidarla.
+     */
+    protected void modificado()
+    {
+        
+    }
+    
+    private boolean notificar(boolean modificado)
+    {
+        if(modificado)
+            modificado();
+        return modificado;
     }
     
     /* Operadores contiene/ es contenido */ 
@@ -172,7 +253,43 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final boolean esIgual(final Conjunto<? extends E> otro)
     {
-        return contiene(otro) && esContenido(otro);
+        return (obtenerCardinal() == otro.obtenerCardinal()) && contiene(otro);
+    }
+    
+    /**
+     * Comprueba si este conjunto y otro tienen algún elemento en común, sin calcular su intersección.
+     * @return Devuelve un valor booleano indicando si la intersección de ambos conjuntos no es vacía.
+     */
+    public final boolean intersecaCon(final Conjunto<? extends E> otro)
+    {
+        Set<?> menor = elementos, mayor = otro.elementos;
+        if(menor.size() > mayor.size())
+        {
+            menor = otro.elementos;
+            mayor = elementos;
+        }
+        for(Object elemento : menor)
+            if(mayor.contains(elemento))
+                return true;
+        return false;
+    }
+    
+    /**
+     * @return Devuelve el cardinal de la intersección de este conjunto con otro, sin calcularla.
+     */
+    public final int tamanoInterseccion(final Conjunto<? extends E> otro)
+    {
+        Set<?> menor = elementos, mayor = otro.elementos;
+        if(menor.size() > mayor.size())
+        {
+            menor = otro.elementos;
+            mayor = elementos;
+        }
+        int tamano = 0;
+        for(Object elemento : menor)
+            if(mayor.contains(elemento))
+                ++tamano;
+        return tamano;
     }
     
     /**
@@ -194,10 +311,26 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final Conjunto union(final Conjunto<? extends E> otro)
     {
-        Conjunto aux = new Conjunto();
-        aux.insertar(this);
-        aux.insertar(otro);
-        return aux;
+        return union(otro, new Conjunto<E>(fabrica));
+    }
+    
+    /**
+     * Une dos conjuntos, guardando el resultado en el conjunto destino (cuyos elementos anteriores se
+     * descartan). El destino puede ser este conjunto o el otro.
+     * @return Devuelve el conjunto destino.
+     */
+    public final <C extends Conjunto<? super E>> C union(final Conjunto<? extends E> otro, final C destino)
+    {
+        Conjunto<? super E> aux = destino;
+        if(aux == otro)
+            aux.notificar(aux.elementos.addAll(elementos));
+        else
+        {
+            if(aux != this)
+                asignar(aux, elementos);
+            aux.notificar(aux.elementos.addAll(otro.elementos));
+        }
+        return destino;
     }
     
     /**
@@ -208,15 +341,26 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final Conjunto interseccion(final Conjunto<? extends E> otro)
     {
-        Conjunto aux = new Conjunto();
-        Iterator<? extends E> it = otro.iterator();
-        while(it.hasNext())
+        return interseccion(otro, new Conjunto<E>(fabrica));
+    }
+    
+    /**
+     * Intersecciona dos conjuntos, guardando el resultado en el conjunto destino (cuyos elementos
+     * anteriores se descartan). El destino puede ser este conjunto o el otro.
+     * @return Devuelve el conjunto destino.
+     */
+    public final <C extends Conjunto<? super E>> C interseccion(final Conjunto<? extends E> otro, final C destino)
+    {
+        Conjunto<? super E> aux = destino;
+        if(aux == otro)
+            aux.notificar(aux.elementos.retainAll(elementos));
+        else
         {
-            E x = it.next();
-            if(this.contiene(x))
-                aux.insertar(x);
+            if(aux != this)
+                asignar(aux, elementos);
+            aux.notificar(aux.elementos.retainAll(otro.elementos));
         }
-        return aux;
+        return destino;
     }
     
     /**
@@ -227,12 +371,32 @@ public class Conjunto<E> implements Iterable<E>
      */
     public final Conjunto diferencia(final Conjunto<? extends E> otro)
     {
-        Conjunto aux = new Conjunto();
-        aux.insertar(this);
-        Iterator<? extends E> it = otro.iterator();
-        while(it.hasNext())
-            aux.eliminar(it.next());
-        return aux;
+        return diferencia(otro, new Conjunto<E>(fabrica));
+    }
+    
+    /**
+     * Resta este conjunto con otro conjunto, guardando el resultado en el conjunto destino (cuyos
+     * elementos anteriores se descartan). El destino puede ser este conjunto o el otro (en este último
+     * caso se usa un almacén auxiliar).
+     * @return Devuelve el conjunto destino.
+     */
+    public final <C extends Conjunto<? super E>> C diferencia(final Conjunto<? extends E> otro, final C destino)
+    {
+        Conjunto<? super E> aux = destino;
+        if(aux == otro)
+        {
+            Set<E> resultado = fabrica.crear();
+            resultado.addAll(elementos);
+            resultado.removeAll(otro.elementos);
+            asignar(aux, resultado);
+        }
+        else
+        {
+            if(aux != this)
+                asignar(aux, elementos);
+            aux.notificar(aux.elementos.removeAll(otro.elementos));
+        }
+        return destino;
     }
     
     /**
@@ -247,7 +411,7 @@ public class Conjunto<E> implements Iterable<E>
         /*
         return this.suma(otro).diferencia(this.interseccion(otro));
         */
-        Conjunto aux = new Conjunto();
+        Conjunto aux = new Conjunto(fabrica);
         aux.insertar(this);
         Iterator<? extends E> it = otro.iterator();
         while(it.hasNext())
@@ -261,6 +425,15 @@ public class Conjunto<E> implements Iterable<E>
         return aux;
     }
     
+    /* sustituye los elementos del conjunto destino por los indicados */
+    private static <T> void asignar(final Conjunto<T> destino, final Set<? extends T> elementos)
+    {
+        boolean vacio = destino.elementos.isEmpty();
+        destino.elementos.clear();
+        destino.elementos.addAll(elementos);
+        destino.notificar(!vacio || !elementos.isEmpty());
+    }
+    
     /* Cardinal del conjunto */
     /**
      * 
@@ -300,4 +473,5 @@ public class Conjunto<E> implements Iterable<E>
     
     /* Atributos */
     Set<E> elementos;
+    private final FabricaAlmacenes fabrica;
 }
@@ -0,0 +1,562 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Representa un conjunto inmutable y persistente de elementos de un tipo específico, ordenados según
+ * su orden natural (como en Conjunto, deben implementar Comparable<E>).
+ * Las operaciones que "modifican" el conjunto (insertar, eliminar, union, interseccion, ...) no lo
+ * alteran, sino que devuelven un nuevo conjunto que comparte con este (y con el otro operando) todos
+ * los nodos que no cambian. Los conjuntos se guardan como árboles AVL; insertar o eliminar un elemento
+ * crea O(log n) nodos nuevos, y las operaciones entre dos conjuntos de tamaños m <= n se resuelven
+ * dividiendo y reuniendo árboles (split/join) en O(m log(n/m + 1)).
+ * Es un Set (de solo lectura), así que puede pasarse a Conjunto.insertar(Collection) y a cualquier
+ * método que reciba una colección; desde un Conjunto se obtiene con de(Iterable). Un Conjunto creado
+ * con FabricaAlmacenes.PERSISTENTE guarda sus elementos en un conjunto persistente, de manera que sus
+ * copias (Conjunto(Conjunto)) comparten los elementos con el original.
+ * @author victor
+ */
+public final class ConjuntoPersistente<E> extends AbstractSet<E> {
+    private ConjuntoPersistente(final Nodo raiz)
+    {
+        this.raiz = raiz;
+    }
+    
+    /**
+     * @return Devuelve el conjunto persistente vacío.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ConjuntoPersistente<E> vacio()
+    {
+        return (ConjuntoPersistente<E>)VACIO;
+    }
+    
+    /**
+     * @return Devuelve un conjunto persistente con los elementos indicados (por ejemplo, los de un
+     * Conjunto o los de cualquier colección). Si los elementos se recorren en orden creciente, como en
+     * un Conjunto guardado en un árbol o en un array ordenado, el conjunto se construye en tiempo lineal.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ConjuntoPersistente<E> de(final Iterable<? extends E> elementos)
+    {
+        if(elementos instanceof ConjuntoPersistente)
+            return (ConjuntoPersistente<E>)elementos;
+        List<Object> aux = new ArrayList<Object>();
+        boolean ordenados = true;
+        for(E elemento : elementos)
+        {
+            if(elemento == null)
+                throw new NullPointerException();
+            if(ordenados && !aux.isEmpty() && (comparar(aux.get(aux.size() - 1), elemento) >= 0))
+                ordenados = false;
+            aux.add(elemento);
+        }
+        Object[] ordenado = aux.toArray();
+        int n = ordenado.length;
+        if(!ordenados)
+        {
+            Arrays.sort(ordenado);
+            /* eliminar repetidos */
+            n = 0;
+            for(int i = 0; i != ordenado.length; ++i)
+                if((n == 0) || (comparar(ordenado[n - 1], ordenado[i]) != 0))
+                    ordenado[n++] = ordenado[i];
+        }
+        return ConjuntoPersistente.<E>vacio().nuevo(construir(ordenado, 0, n));
+    }
+    
+    /* Operaciones básicas */
+    /**
+     * @return Devuelve un conjunto con los elementos de este conjunto y el elemento indicado (este
+     * mismo conjunto si ya lo contenía).
+     */
+    public ConjuntoPersistente<E> insertar(final E elemento)
+    {
+        if(elemento == null)
+            throw new NullPointerException();
+        return nuevo(insertar(raiz, elemento));
+    }
+    
+    /**
+     * @return Devuelve un conjunto con los elementos de este conjunto salvo el indicado (este mismo
+     * conjunto si no lo contenía).
+     */
+    public ConjuntoPersistente<E> eliminar(final E elemento)
+    {
+        return nuevo(eliminar(raiz, elemento));
+    }
+    
+    /* Operadores contiene/ es contenido */
+    /**
+     * @return Devuelve un valor booleano indicando si el elemento está en este conjunto.
+     */
+    public boolean contiene(final E elemento)
+    {
+        Nodo nodo = raiz;
+        while(nodo != null)
+        {
+            int r = comparar(elemento, nodo.elemento);
+            if(r == 0)
+                return true;
+            nodo = (r < 0) ? nodo.izquierdo : nodo.derecho;
+        }
+        return false;
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si el otro conjunto es subconjunto de este.
+     */
+    public boolean contiene(final ConjuntoPersistente<?> otro)
+    {
+        if((otro.raiz == raiz) || (otro.raiz == null))
+            return true;
+        if(otro.size() > size())
+            return false;
+        /* recorrido simultáneo de ambos conjuntos en orden */
+        Iterator<E> it = iterator();
+        for(Object elemento : otro)
+        {
+            int r = -1;
+            while(it.hasNext() && ((r = comparar(it.next(), elemento)) < 0))
+                ;
+            if(r != 0)
+                return false;
+        }
+        return true;
+    }
+    
+    /**
+     * @return Devuelve otro.contiene(this)
+     */
+    public boolean esContenido(final ConjuntoPersistente<? extends E> otro)
+    {
+        return otro.contiene(this);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si ambos conjuntos tienen los mismos elementos.
+     */
+    public boolean esIgual(final ConjuntoPersistente<? extends E> otro)
+    {
+        return (size() == otro.size()) && contiene(otro);
+    }
+    
+    /**
+     * @return Devuelve un valor booleano indicando si este conjunto es vacío.
+     */
+    public boolean esVacio()
+    {
+        return raiz == null;
+    }
+    
+    /**
+     * @return Devuelve el cardinal de este conjunto.
+     */
+    public int obtenerCardinal()
+    {
+        return tamano(raiz);
+    }
+    
+    /* Operaciones union, diferencia, ... */
+    /**
+     * @return Devuelve un conjunto con los elementos de este conjunto y los del otro conjunto.
+     */
+    public ConjuntoPersistente<E> union(final ConjuntoPersistente<? extends E> otro)
+    {
+        return nuevo(union(raiz, otro.raiz));
+    }
+    
+    /**
+     * @return Devuelve un conjunto con los elementos que están tanto en este conjunto como en el otro.
+     */
+    public ConjuntoPersistente<E> interseccion(final ConjuntoPersistente<?> otro)
+    {
+        return nuevo(interseccion(raiz, otro.raiz));
+    }
+    
+    /**
+     * @return Devuelve un conjunto con los elementos de este conjunto que no están en el otro.
+     */
+    public ConjuntoPersistente<E> diferencia(final ConjuntoPersistente<?> otro)
+    {
+        return nuevo(diferencia(raiz, otro.raiz));
+    }
+    
+    /**
+     * @return Devuelve un conjunto con los elementos que están en uno solo de los dos conjuntos.
+     */
+    public ConjuntoPersistente<E> diferenciaSimétrica(final ConjuntoPersistente<? extends E> otro)
+    {
+        return nuevo(diferenciaSimetrica(raiz, otro.raiz));
+    }
+    
+    /* Conversión */
+    /**
+     * @return Devuelve un Conjunto (mutable) con los elementos de este conjunto, guardados en un
+     * almacén creado por la fábrica indicada.
+     */
+    public Conjunto<E> aConjunto(final FabricaAlmacenes fabrica)
+    {
+        Conjunto<E> conjunto = new Conjunto<E>(fabrica);
+        conjunto.insertar(this);
+        return conjunto;
+    }
+    
+    /* Set */
+    @Override
+    public int size()
+    {
+        return obtenerCardinal();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o)
+    {
+        return contiene((E)o);
+    }
+    
+    @Override
+    public boolean containsAll(Collection<?> c)
+    {
+        if(c instanceof ConjuntoPersistente)
+            return contiene((ConjuntoPersistente<?>)c);
+        return super.containsAll(c);
+    }
+    
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext()
+            {
+                return !pendientes.isEmpty();
+            }
+            
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next()
+            {
+                if(pendientes.isEmpty())
+                    throw new NoSuchElementException();
+                Nodo nodo = pendientes.pop();
+                apilar(nodo.derecho);
+                return (E)nodo.elemento;
+            }
+            
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+            
+            /* apila el camino hasta el menor elemento del subárbol */
+            private void apilar(Nodo nodo)
+            {
+                for(; nodo != null; nodo = nodo.izquierdo)
+                    pendientes.push(nodo);
+            }
+            
+            private final Deque<Nodo> pendientes = new ArrayDeque<Nodo>();
+            {
+                apilar(raiz);
+            }
+        };
+    }
+    
+    @Override
+    public String toString()
+    {
+        StringBuilder aux = new StringBuilder();
+        for(E elemento : this)
+        {
+            if(aux.length() > 0)
+                aux.append(',');
+            aux.append(elemento);
+        }
+        return aux.toString();
+    }
+    
+    private ConjuntoPersistente<E> nuevo(final Nodo nuevaRaiz)
+    {
+        if(nuevaRaiz == raiz)
+            return this;
+        return (nuevaRaiz == null) ? ConjuntoPersistente.<E>vacio() : new ConjuntoPersistente<E>(nuevaRaiz);
+    }
+    
+    /* Árboles AVL. Los nodos no se modifican nunca una vez creados; las operaciones devuelven el
+    mismo nodo que reciben si el resultado no cambia, para conservar la compartición. */
+    private static final class Nodo
+    {
+        Nodo(final Nodo izquierdo, final Object elemento, final Nodo derecho)
+        {
+            this.izquierdo = izquierdo;
+            this.elemento = elemento;
+            this.derecho = derecho;
+            altura = Math.max(altura(izquierdo), altura(derecho)) + 1;
+            tamano = tamano(izquierdo) + tamano(derecho) + 1;
+        }
+        
+        final Nodo izquierdo, derecho;
+        final Object elemento;
+        final int altura, tamano;
+    }
+    
+    /* resultado de dividir un árbol por un elemento */
+    private static final class Division
+    {
+        Nodo menores, mayores;
+        boolean encontrado;
+    }
+    
+    private static int altura(final Nodo nodo)
+    {
+        return (nodo != null) ? nodo.altura : 0;
+    }
+    
+    private static int tamano(final Nodo nodo)
+    {
+        return (nodo != null) ? nodo.tamano : 0;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static int comparar(final Object a, final Object b)
+    {
+        return ((Comparable<Object>)a).compareTo(b);
+    }
+    
+    private static Nodo construir(final Object[] ordenado, int desde, int hasta)
+    {
+        if(desde >= hasta)
+            return null;
+        int medio = (desde + hasta) >>> 1;
+        return new Nodo(construir(ordenado, desde, medio), ordenado[medio], construir(ordenado, medio + 1, hasta));
+    }
+    
+    /* crea un nodo con los subárboles indicados, cuyas alturas difieren a lo sumo en 2, rotándolo si es
+    necesario para que quede equilibrado */
+    private static Nodo equilibrar(final Nodo izquierdo, final Object elemento, final Nodo derecho)
+    {
+        int hi = altura(izquierdo), hd = altura(derecho);
+        if(hi > hd + 1)
+        {
+            if(altura(izquierdo.izquierdo) >= altura(izquierdo.derecho))
+                return new Nodo(izquierdo.izquierdo, izquierdo.elemento, new Nodo(izquierdo.derecho, elemento, derecho));
+            Nodo c = izquierdo.derecho;
+            return new Nodo(new Nodo(izquierdo.izquierdo, izquierdo.elemento, c.izquierdo), c.elemento, new Nodo(c.derecho, elemento, derecho));
+        }
+        if(hd > hi + 1)
+        {
+            if(altura(derecho.derecho) >= altura(derecho.izquierdo))
+                return new Nodo(new Nodo(izquierdo, elemento, derecho.izquierdo), derecho.elemento, derecho.derecho);
+            Nodo c = derecho.izquierdo;
+            return new Nodo(new Nodo(izquierdo, elemento, c.izquierdo), c.elemento, new Nodo(c.derecho, derecho.elemento, derecho.derecho));
+        }
+        return new Nodo(izquierdo, elemento, derecho);
+    }
+    
+    /* reúne dos árboles y un elemento, siendo los elementos del primero menores que él y los del segundo
+    mayores, en O(|altura(izquierdo) - altura(derecho)|) */
+    private static Nodo reunir(final Nodo izquierdo, final Object elemento, final Nodo derecho)
+    {
+        int hi = altura(izquierdo), hd = altura(derecho);
+        if(hi > hd + 1)
+            return equilibrar(izquierdo.izquierdo, izquierdo.elemento, reunir(izquierdo.derecho, elemento, derecho));
+        if(hd > hi + 1)
+            return equilibrar(reunir(izquierdo, elemento, derecho.izquierdo), derecho.elemento, derecho.derecho);
+        return new Nodo(izquierdo, elemento, derecho);
+    }
+    
+    /* reúne dos árboles, siendo los elementos del primero menores que los del segundo */
+    private static Nodo reunir(final Nodo izquierdo, final Nodo derecho)
+    {
+        if(izquierdo == null)
+            return derecho;
+        if(derecho == null)
+            return izquierdo;
+        Nodo menor = derecho;
+        while(menor.izquierdo != null)
+            menor = menor.izquierdo;
+        return reunir(izquierdo, menor.elemento, eliminarMinimo(derecho));
+    }
+    
+    private static Nodo eliminarMinimo(final Nodo nodo)
+    {
+        if(nodo.izquierdo == null)
+            return nodo.derecho;
+        return equilibrar(eliminarMinimo(nodo.izquierdo), nodo.elemento, nodo.derecho);
+    }
+    
+    /* divide un árbol en los elementos menores y mayores que el indicado */
+    private static void dividir(final Nodo nodo, final Object elemento, final Division division)
+    {
+        if(nodo == null)
+        {
+            division.menores = division.mayores = null;
+            division.encontrado = false;
+            return;
+        }
+        int r = comparar(elemento, nodo.elemento);
+        if(r == 0)
+        {
+            division.menores = nodo.izquierdo;
+            division.mayores = nodo.derecho;
+            division.encontrado = true;
+        }
+        else if(r < 0)
+        {
+            dividir(nodo.izquierdo, elemento, division);
+            division.mayores = reunir(division.mayores, nodo.elemento, nodo.derecho);
+        }
+        else
+        {
+            dividir(nodo.derecho, elemento, division);
+            division.menores = reunir(nodo.izquierdo, nodo.elemento, division.menores);
+        }
+    }
+    
+    private static Nodo insertar(final Nodo nodo, final Object elemento)
+    {
+        if(nodo == null)
+            return new Nodo(null, elemento, null);
+        int r = comparar(elemento, nodo.elemento);
+        if(r == 0)
+            return nodo;
+        if(r < 0)
+        {
+            Nodo izquierdo = insertar(nodo.izquierdo, elemento);
+            return (izquierdo == nodo.izquierdo) ? nodo : equilibrar(izquierdo, nodo.elemento, nodo.derecho);
+        }
+        Nodo derecho = insertar(nodo.derecho, elemento);
+        return (derecho == nodo.derecho) ? nodo : equilibrar(nodo.izquierdo, nodo.elemento, derecho);
+    }
+    
+    private static Nodo eliminar(final Nodo nodo, final Object elemento)
+    {
+        if(nodo == null)
+            return null;
+        int r = comparar(elemento, nodo.elemento);
+        if(r == 0)
+            return reunir(nodo.izquierdo, nodo.derecho);
+        if(r < 0)
+        {
+            Nodo izquierdo = eliminar(nodo.izquierdo, elemento);
+            return (izquierdo == nodo.izquierdo) ? nodo : equilibrar(izquierdo, nodo.elemento, nodo.derecho);
+        }
+        Nodo derecho = eliminar(nodo.derecho, elemento);
+        return (derecho == nodo.derecho) ? nodo : equilibrar(nodo.izquierdo, nodo.elemento, derecho);
+    }
+    
+    private static Nodo union(final Nodo a, final Nodo b)
+    {
+        if((a == null) || (a == b))
+            return b;
+        if(b == null)
+            return a;
+        Division division = new Division();
+        dividir(b, a.elemento, division);
+        Nodo mayores = division.mayores;
+        Nodo izquierdo = union(a.izquierdo, division.menores);
+        Nodo derecho = union(a.derecho, mayores);
+        if((izquierdo == a.izquierdo) && (derecho == a.derecho))
+            return a;
+        return reunir(izquierdo, a.elemento, derecho);
+    }
+    
+    private static Nodo interseccion(final Nodo a, final Nodo b)
+    {
+        if((a == null) || (b == null))
+            return null;
+        if(a == b)
+            return a;
+        Division division = new Division();
+        dividir(b, a.elemento, division);
+        Nodo mayores = division.mayores;
+        boolean encontrado = division.encontrado;
+        Nodo izquierdo = interseccion(a.izquierdo, division.menores);
+        Nodo derecho = interseccion(a.derecho, mayores);
+        if(!encontrado)
+            return reunir(izquierdo, derecho);
+        if((izquierdo == a.izquierdo) && (derecho == a.derecho))
+            return a;
+        return reunir(izquierdo, a.elemento, derecho);
+    }
+    
+    /* a - b */
+    private static Nodo diferencia(final Nodo a, final Nodo b)
+    {
+        if((a == null) || (a == b))
+            return null;
+        if(b == null)
+            return a;
+        Division division = new Division();
+        dividir(b, a.elemento, division);
+        Nodo mayores = division.mayores;
+        boolean encontrado = division.encontrado;
+        Nodo izquierdo = diferencia(a.izquierdo, division.menores);
+        Nodo derecho = diferencia(a.derecho, mayores);
+        if(encontrado)
+            return reunir(izquierdo, derecho);
+        if((izquierdo == a.izquierdo) && (derecho == a.derecho))
+            return a;
+        return reunir(izquierdo, a.elemento, derecho);
+    }
+    
+    private static Nodo diferenciaSimetrica(final Nodo a, final Nodo b)
+    {
+        if(a == b)
+            return null;
+        if(a == null)
+            return b;
+        if(b == null)
+            return a;
+        Division division = new Division();
+        dividir(b, a.elemento, division);
+        Nodo mayores = division.mayores;
+        boolean encontrado = division.encontrado;
+        Nodo izquierdo = diferenciaSimetrica(a.izquierdo, division.menores);
+        Nodo derecho = diferenciaSimetrica(a.derecho, mayores);
+        if(encontrado)
+            return reunir(izquierdo, derecho);
+        if((izquierdo == a.izquierdo) && (derecho == a.derecho))
+            return a;
+        return reunir(izquierdo, a.elemento, derecho);
+    }
+    
+    private static final ConjuntoPersistente<Object> VACIO = new ConjuntoPersistente<Object>(null);
+    
+    private final Nodo raiz;
+}
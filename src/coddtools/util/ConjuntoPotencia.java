@@ -27,47 +27,39 @@ package coddtools.util;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+/* clase auxiliar que representa el iterador para iterar sobre los subconjuntos del conjunto.
+Recorre las máscaras de los subconjuntos con un EnumeradorSubconjuntos.
+*/
 class IteradorConjuntoPotencia<E> implements Iterator<Conjunto<E>> 
 {
-    public IteradorConjuntoPotencia(final Conjunto<E> elementos)
+    public IteradorConjuntoPotencia(final Conjunto<E> elementos, final OrdenSubconjuntos orden)
     {
-        this.elementos = elementos;
-        this.tamanoSubconjunto = elementos.obtenerCardinal();
-        if(!elementos.esVacio())
-            iteradorCombinaciones = new IteradorCombinaciones(elementos, elementos.obtenerCardinal());
+        enumerador = new EnumeradorSubconjuntos<E>(elementos, orden);
+        haySiguiente = enumerador.avanzar();
     }
     
     @Override
     public boolean hasNext() {
-        return tamanoSubconjunto >= 0;
+        return haySiguiente;
     }
 
     @Override
     public Conjunto<E> next() {
-        if(tamanoSubconjunto >= 0)
-        {
-            if(tamanoSubconjunto > 0)
-            {
-                if(!iteradorCombinaciones.hasNext())
-                {
-                    tamanoSubconjunto--;
-                    if(tamanoSubconjunto > 0)
-                        iteradorCombinaciones = new IteradorCombinaciones(elementos, tamanoSubconjunto);
-                }
-                if(tamanoSubconjunto > 0)
-                    return iteradorCombinaciones.next();
-            }
-            
-            Conjunto<E> vacio = new Conjunto<E>(); /* generamos el conjunto vacío */
-            tamanoSubconjunto--;
-            return vacio;
-        }
-        throw new NoSuchElementException();
+        if(!haySiguiente)
+            throw new NoSuchElementException();
+        Conjunto<E> subconjunto = enumerador.obtenerSubconjunto(new Conjunto<E>(FabricaAlmacenes.ARREGLO_ORDENADO));
+        haySiguiente = enumerador.avanzar();
+        return subconjunto;
+    }
+    
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
     }
     
-    private final Conjunto<E> elementos;
-    private int tamanoSubconjunto;
-    private IteradorCombinaciones<E> iteradorCombinaciones;
+    private final EnumeradorSubconjuntos<E> enumerador;
+    private boolean haySiguiente;
 }
 
 /**
@@ -91,7 +83,26 @@ public class ConjuntoPotencia<E> implements Iterable<Conjunto<E>> {
     @Override
     public Iterator<Conjunto<E>> iterator()
     {
-        return new IteradorConjuntoPotencia<E>(elementos);
+        return iterator(OrdenSubconjuntos.POR_TAMANO);
+    }
+    
+    /**
+     * @return Devuelve un iterador sobre todos los subconjuntos del conjunto asociado, que los
+     * recorre en el orden indicado.
+     */
+    public Iterator<Conjunto<E>> iterator(final OrdenSubconjuntos orden)
+    {
+        return new IteradorConjuntoPotencia<E>(elementos, orden);
+    }
+    
+    /**
+     * @return Devuelve un enumerador que recorre los subconjuntos del conjunto asociado en el orden
+     * indicado, como máscaras de bits y sin crear un conjunto por cada subconjunto. 
+     * (Véase EnumeradorSubconjuntos)
+     */
+    public EnumeradorSubconjuntos<E> obtenerEnumerador(final OrdenSubconjuntos orden)
+    {
+        return new EnumeradorSubconjuntos<E>(elementos, orden);
     }
     
     
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+/**
+ * Recorre los subconjuntos de un conjunto (de a lo sumo OrdenSubconjuntos.MAXIMO_ELEMENTOS elementos)
+ * en el orden indicado, representando cada uno como una máscara de bits: el bit i-ésimo indica si el
+ * subconjunto contiene el i-ésimo elemento del conjunto (en el orden en el que se recorre el conjunto).
+ * No se crea ningún objeto por subconjunto.
+ * Opcionalmente, un oyente es avisado de los elementos que se insertan y se eliminan al pasar de un
+ * subconjunto al siguiente, de manera que puede mantener información sobre el subconjunto actual sin
+ * recalcularla: en orden Gray cada paso inserta o elimina un solo elemento.
+ * @author victor
+ */
+public final class EnumeradorSubconjuntos<E> {
+    /**
+     * Es avisado de los cambios del subconjunto actual. Antes del primer subconjunto se considera que
+     * el subconjunto actual es vacío; en cada paso se avisa primero de los elementos eliminados y
+     * luego de los insertados.
+     */
+    public interface Oyente<E>
+    {
+        void insertado(E elemento);
+        
+        void eliminado(E elemento);
+    }
+    
+    /**
+     * @param elementos Es el conjunto cuyos subconjuntos se recorren.
+     * @param orden Es el orden en el que se recorren.
+     * @throws IllegalArgumentException si el conjunto tiene más de OrdenSubconjuntos.MAXIMO_ELEMENTOS
+     * elementos.
+     */
+    @SuppressWarnings("unchecked")
+    public EnumeradorSubconjuntos(final Conjunto<E> elementos, final OrdenSubconjuntos orden) throws IllegalArgumentException
+    {
+        if(elementos.obtenerCardinal() > OrdenSubconjuntos.MAXIMO_ELEMENTOS)
+            throw new IllegalArgumentException("demasiados elementos para recorrer sus subconjuntos: " + elementos.obtenerCardinal());
+        this.elementos = (E[])new Object[elementos.obtenerCardinal()];
+        int i = 0;
+        for(E elemento : elementos)
+            this.elementos[i++] = elemento;
+        this.orden = orden;
+        reiniciar();
+    }
+    
+    /**
+     * Establece el oyente que será avisado de los cambios del subconjunto actual (null para no avisar
+     * a ninguno).
+     */
+    public void establecerOyente(final Oyente<? super E> oyente)
+    {
+        this.oyente = oyente;
+    }
+    
+    /**
+     * Vuelve a situar el enumerador antes del primer subconjunto. (No se avisa al oyente)
+     */
+    public void reiniciar()
+    {
+        iniciado = false;
+        mascara = 0;
+    }
+    
+    /**
+     * Pasa al siguiente subconjunto (al primero, la primera vez que se invoca), avisando al oyente de
+     * los elementos que cambian.
+     * @return Devuelve un valor booleano indicando si había un subconjunto más, o si por el contrario
+     * ya se han recorrido todos.
+     */
+    public boolean avanzar()
+    {
+        long siguiente;
+        if(!iniciado)
+        {
+            iniciado = true;
+            siguiente = orden.obtenerPrimero(elementos.length);
+        }
+        else if(mascara == OrdenSubconjuntos.FIN)
+            return false;
+        else
+            siguiente = orden.obtenerSiguiente(mascara, elementos.length);
+        if(siguiente == OrdenSubconjuntos.FIN)
+        {
+            mascara = OrdenSubconjuntos.FIN;
+            return false;
+        }
+        if(oyente != null)
+        {
+            long cambios = mascara ^ siguiente;
+            for(long bits = cambios & mascara; bits != 0; bits &= bits - 1)
+                oyente.eliminado(elementos[Long.numberOfTrailingZeros(bits)]);
+            for(long bits = cambios & siguiente; bits != 0; bits &= bits - 1)
+                oyente.insertado(elementos[Long.numberOfTrailingZeros(bits)]);
+        }
+        mascara = siguiente;
+        return true;
+    }
+    
+    /**
+     * @return Devuelve la máscara del subconjunto actual.
+     */
+    public long obtenerMascara()
+    {
+        return mascara;
+    }
+    
+    /**
+     * Guarda el subconjunto actual en el conjunto destino (cuyos elementos anteriores se descartan).
+     * @return Devuelve el conjunto destino.
+     */
+    public Conjunto<E> obtenerSubconjunto(final Conjunto<E> destino)
+    {
+        destino.eliminarTodo();
+        for(long bits = mascara; bits != 0; bits &= bits - 1)
+            destino.insertar(elementos[Long.numberOfTrailingZeros(bits)]);
+        return destino;
+    }
+    
+    /**
+     * @return Devuelve el elemento que corresponde al bit i-ésimo de las máscaras.
+     */
+    public E obtenerElemento(int i)
+    {
+        return elementos[i];
+    }
+    
+    /**
+     * @return Devuelve el número de elementos del conjunto.
+     */
+    public int obtenerNumeroElementos()
+    {
+        return elementos.length;
+    }
+    
+    private final E[] elementos; /* los elementos del conjunto, en el orden en el que se recorren */
+    private final OrdenSubconjuntos orden;
+    private Oyente<? super E> oyente;
+    private boolean iniciado;
+    private long mascara; /* subconjunto actual (FIN si ya se han recorrido todos) */
+}
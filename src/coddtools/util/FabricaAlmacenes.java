@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Crea los almacenes (implementaciones de Set) en los que un Conjunto guarda sus elementos. Cada
+ * fábrica corresponde a una representación distinta, con distinto orden de iteración. Todas salvo HASH
+ * comparan los elementos con compareTo; HASH usa equals y hashCode, luego solo ofrece la misma semántica
+ * de conjunto para elementos cuyo equals es coherente con compareTo (a.equals(b) si y solo si
+ * a.compareTo(b) == 0), como Atributo, Descriptor o DependenciaFuncional. Lo mismo se exige al operar
+ * (unión, intersección, diferencia, inclusión) entre un conjunto HASH y otro de distinta fábrica, ya que
+ * cada operación consulta el almacén del otro operando:
+ * ARBOL: árbol rojo-negro (TreeSet). Recorre los elementos en su orden natural.
+ * HASH: tabla hash (HashSet). El orden de iteración no está definido; solo es adecuada para conjuntos
+ * cuyos usuarios no dependen de él, y cuyos elementos tienen un equals coherente con compareTo (con
+ * otros elementos, e.g. Relacion, equals compara la identidad de los objetos).
+ * ARREGLO_ORDENADO: array ordenado (AlmacenOrdenado). Recorre los elementos en su orden natural, y
+ * resuelve las operaciones entre conjuntos en tiempo lineal.
+ * bits(universo): vector de bits sobre un universo (AlmacenBits). Recorre los elementos en el orden de
+ * sus índices en el universo.
+ * PERSISTENTE: conjunto persistente (AlmacenPersistente). Recorre los elementos en su orden natural, y
+ * las copias de un almacén (copiar) se obtienen en tiempo constante, compartiendo sus elementos.
+ * @author victor
+ */
+public abstract class FabricaAlmacenes {
+    private FabricaAlmacenes()
+    {
+        
+    }
+    
+    /**
+     * @return Devuelve un nuevo almacén vacío.
+     */
+    public abstract <E> Set<E> crear();
+    
+    /**
+     * @param almacen Es un almacén creado por esta fábrica.
+     * @return Devuelve un nuevo almacén con los mismos elementos que el indicado.
+     */
+    public <E> Set<E> copiar(final Set<E> almacen)
+    {
+        Set<E> copia = crear();
+        copia.addAll(almacen);
+        return copia;
+    }
+    
+    /**
+     * @return Devuelve una fábrica de almacenes que representan subconjuntos del universo indicado
+     * como vectores de bits. Los conjuntos creados con ella solo admiten elementos del universo.
+     */
+    public static <T> FabricaAlmacenes bits(final Universo<T> universo)
+    {
+        return new FabricaAlmacenes() 
+            {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <E> Set<E> crear()
+                {
+                    return (Set<E>)new AlmacenBits<T>(universo);
+                }
+                
+                @Override
+                public String toString()
+                {
+                    return "bits";
+                }
+            };
+    }
+    
+    /* Fábricas */
+    public static final FabricaAlmacenes ARBOL = new FabricaAlmacenes()
+        {
+            @Override
+            public <E> Set<E> crear()
+            {
+                return new TreeSet<E>();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "arbol";
+            }
+        };
+    
+    public static final FabricaAlmacenes HASH = new FabricaAlmacenes()
+        {
+            @Override
+            public <E> Set<E> crear()
+            {
+                return new HashSet<E>();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "hash";
+            }
+        };
+    
+    public static final FabricaAlmacenes ARREGLO_ORDENADO = new FabricaAlmacenes()
+        {
+            @Override
+            public <E> Set<E> crear()
+            {
+                return new AlmacenOrdenado<E>();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "arreglo ordenado";
+            }
+        };
+    
+    public static final FabricaAlmacenes PERSISTENTE = new FabricaAlmacenes()
+        {
+            @Override
+            public <E> Set<E> crear()
+            {
+                return new AlmacenPersistente<E>();
+            }
+            
+            @Override
+            public <E> Set<E> copiar(final Set<E> almacen)
+            {
+                return ((AlmacenPersistente<E>)almacen).copiar();
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "persistente";
+            }
+        };
+}
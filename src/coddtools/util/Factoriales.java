@@ -69,7 +69,7 @@ public class Factoriales {
         int s = 0; 
         while(s < k)
         {
-            r *= ((m - s) / (s + 1));
+            r = (r * (m - s)) / (s + 1); /* r = (m s+1), la división es exacta */
             s++;
         }
         return r;
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+/**
+ * Genera las combinaciones de k índices tomados del conjunto {0, 1, ..., n - 1}, en orden
+ * lexicográfico, sobre un único array de índices crecientes que se modifica en cada paso (sin crear
+ * objetos). Cada paso cuesta O(1) amortizado: solo cambian los índices a partir de la posición
+ * indicada por obtenerPrimerCambio().
+ * e.g. Para n = 4 y k = 2: {0,1}, {0,2}, {0,3}, {1,2}, {1,3}, {2,3}
+ * @author victor
+ */
+public final class MotorCombinaciones {
+    /**
+     * @param n Es el número de elementos entre los que se escoge.
+     * @param k Es el tamaño de las combinaciones (0 <= k <= n).
+     */
+    public MotorCombinaciones(int n, int k)
+    {
+        if((k < 0) || (k > n))
+            throw new IllegalArgumentException("tamaño de combinación no válido: " + k + " de " + n);
+        this.n = n;
+        indices = new int[k];
+        reiniciar();
+    }
+    
+    /**
+     * Vuelve a situar el generador antes de la primera combinación.
+     */
+    public void reiniciar()
+    {
+        iniciado = false;
+        agotado = false;
+        primerCambio = 0;
+    }
+    
+    /**
+     * Pasa a la siguiente combinación (a la primera, la primera vez que se invoca).
+     * @return Devuelve un valor booleano indicando si había una combinación más, o si por el contrario
+     * ya se han generado todas.
+     */
+    public boolean avanzar()
+    {
+        if(agotado)
+            return false;
+        int k = indices.length;
+        if(!iniciado)
+        {
+            iniciado = true;
+            for(int j = 0; j != k; ++j)
+                indices[j] = j;
+            primerCambio = 0;
+            return true;
+        }
+        /* buscar el último índice que aún puede incrementarse */
+        int i = k - 1;
+        while((i >= 0) && (indices[i] == (n - k + i)))
+            --i;
+        if(i < 0)
+        {
+            agotado = true;
+            return false;
+        }
+        ++indices[i];
+        for(int j = i + 1; j != k; ++j)
+            indices[j] = indices[j - 1] + 1;
+        primerCambio = i;
+        return true;
+    }
+    
+    /**
+     * @return Devuelve los índices de la combinación actual, en orden creciente. El array es el que
+     * usa el generador (no una copia): no debe modificarse, y cambia en cada llamada a avanzar().
+     */
+    public int[] obtenerIndices()
+    {
+        return indices;
+    }
+    
+    /**
+     * @return Devuelve la primera posición del array de índices que cambió en la última llamada a
+     * avanzar(). Las posiciones anteriores conservan los índices de la combinación anterior.
+     */
+    public int obtenerPrimerCambio()
+    {
+        return primerCambio;
+    }
+    
+    /**
+     * @return Devuelve el tamaño de las combinaciones (k).
+     */
+    public int obtenerTamano()
+    {
+        return indices.length;
+    }
+    
+    private final int n;
+    private final int[] indices; /* índices de la combinación actual, en orden creciente */
+    private boolean iniciado, agotado;
+    private int primerCambio;
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2014 victor.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package coddtools.util;
+
+/**
+ * Representa el orden en el que se recorren los subconjuntos de un conjunto de n elementos
+ * (EnumeradorSubconjuntos). Los subconjuntos se representan como máscaras de bits: el bit i-ésimo
+ * indica si el subconjunto contiene el elemento i-ésimo. Como máximo se admiten 63 elementos.
+ * @author victor
+ */
+public abstract class OrdenSubconjuntos {
+    private OrdenSubconjuntos()
+    {
+        
+    }
+    
+    /**
+     * @return Devuelve la máscara del primer subconjunto de un conjunto de n elementos.
+     */
+    public abstract long obtenerPrimero(int n);
+    
+    /**
+     * @return Devuelve la máscara del subconjunto siguiente al indicado, o FIN si era el último.
+     */
+    public abstract long obtenerSiguiente(long mascara, int n);
+    
+    /**
+     * Máscara que indica que no hay más subconjuntos. (No corresponde a ningún subconjunto)
+     */
+    public static final long FIN = -1;
+    
+    /**
+     * Es el número máximo de elementos del conjunto.
+     */
+    public static final int MAXIMO_ELEMENTOS = 63;
+    
+    
+    /* Órdenes */
+    /**
+     * Recorre primero el conjunto completo, luego los subconjuntos de n-1 elementos, luego los de
+     * n-2, ..., y por último el conjunto vacío. Los subconjuntos del mismo tamaño se recorren en orden
+     * lexicográfico (como en Combinaciones).
+     */
+    public static final OrdenSubconjuntos POR_TAMANO = new OrdenSubconjuntos()
+        {
+            @Override
+            public long obtenerPrimero(int n)
+            {
+                return mascaraCompleta(n);
+            }
+            
+            @Override
+            public long obtenerSiguiente(long mascara, int n)
+            {
+                int k = Long.bitCount(mascara);
+                /* r es el número de elementos que ocupan las últimas posiciones (n-r, ..., n-1); no
+                pueden avanzar */
+                long libres = ~mascara & mascaraCompleta(n);
+                int r = (libres == 0) ? n : (n - 1 - (63 - Long.numberOfLeadingZeros(libres)));
+                long resto = mascara & mascaraCompleta(n - r);
+                if(resto == 0)
+                {
+                    /* era la última combinación de k elementos: pasar a la primera de k-1 */
+                    if(k == 0)
+                        return FIN;
+                    return mascaraCompleta(k - 1);
+                }
+                /* avanzar el último elemento que puede hacerlo, y colocar tras él los r siguientes */
+                int p = 63 - Long.numberOfLeadingZeros(resto);
+                return (resto & ~(1L << p)) | (1L << (p + 1)) | (mascaraCompleta(r) << (p + 2));
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "por tamaño";
+            }
+        };
+    
+    /**
+     * Recorre los subconjuntos según el código Gray reflejado, empezando por el conjunto vacío: cada
+     * subconjunto se diferencia del anterior en un solo elemento.
+     */
+    public static final OrdenSubconjuntos GRAY = new OrdenSubconjuntos()
+        {
+            @Override
+            public long obtenerPrimero(int n)
+            {
+                return 0;
+            }
+            
+            @Override
+            public long obtenerSiguiente(long mascara, int n)
+            {
+                if(mascara == ((n == 0) ? 0 : (1L << (n - 1))))
+                    return FIN; /* es el último código de n bits */
+                /* si el número de elementos es par se cambia el primero; si no, el siguiente al primero
+                que está en el subconjunto */
+                if((Long.bitCount(mascara) & 1) == 0)
+                    return mascara ^ 1;
+                return mascara ^ (Long.lowestOneBit(mascara) << 1);
+            }
+            
+            @Override
+            public String toString()
+            {
+                return "Gray";
+            }
+        };
+    
+    /* máscara con los n primeros bits activados */
+    private static long mascaraCompleta(int n)
+    {
+        return (n >= 64) ? -1L : ((1L << n) - 1);
+    }
+}
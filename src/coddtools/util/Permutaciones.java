@@ -44,7 +44,7 @@ class IteradorPermutaciones<E> implements Iterator<List<E>>{
             
             if(elementos.obtenerCardinal() > 1)
             {
-                subconjuntoSinPivote = new Conjunto<E>();
+                subconjuntoSinPivote = new Conjunto<E>(FabricaAlmacenes.ARREGLO_ORDENADO);
                 subconjuntoSinPivote.insertar(elementos);
                 subconjuntoSinPivote.eliminar(pivote);
                 it = new IteradorPermutaciones(subconjuntoSinPivote);